@@ -1,3 +1,7 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -8,6 +12,8 @@ public abstract class AIPlayer extends Player {
     public static void registerAllAIPlayers() {
         registerAIPlayerType("RandomAI", RandomAI.class);
         registerAIPlayerType("GreedyAI", GreedyAI.class);
+        registerAIPlayerType("MinimaxAI", MinimaxAI.class);
+        registerAIPlayerType("MctsAI", MctsAI.class);
         // Add more AIPlayer subclasses here as needed
     }
     @Override
@@ -17,6 +23,10 @@ public abstract class AIPlayer extends Player {
 
     // Map of AI player types and their corresponding classes
     private static final Map<String, Class<? extends AIPlayer>> aiPlayerRegistry = new HashMap<>();
+    private static volatile OpeningBook openingBook;  // shared by all AI players, null for no book
+    private static volatile PatternEvaluator patternEvaluator;  // shared by the searching AI players, null for the default weights
+    private EndgameSolver endgameSolver;  // created on the first endgame move
+    private int endgameEmpties = EndgameSolver.DEFAULT_EMPTIES;  // solve exactly from this few empty squares on
 
     public AIPlayer(boolean isPlayerOne) {
         super(isPlayerOne);
@@ -45,4 +55,166 @@ public abstract class AIPlayer extends Player {
         return new ArrayList<>(aiPlayerRegistry.keySet());
     }
     public abstract Move makeMove(PlayableLogic gameStatus);
+
+    /**
+     * Sets which side this AI plays, so one instance can play either color from game to game.
+     * Call it only between games.
+     * @param isPlayerOne true to play as Player 1, false to play as Player 2.
+     */
+    public void setPlayerOne(boolean isPlayerOne) {
+        this.isPlayerOne = isPlayerOne;
+    }
+
+    /**
+     * Asks a makeMove running in another thread to return as soon as it can, with the best move found so far.
+     * Players that don't search return quickly anyway, so by default this does nothing.
+     */
+    public void stopThinking() {
+    }
+
+    /**
+     * Withdraws an earlier stopThinking or stopPondering, which otherwise also stops the makeMove or ponder
+     * that comes after it. Call it in the thread that is about to think, before it checks whether it was cancelled.
+     */
+    public void resumeThinking() {
+    }
+
+    /**
+     * Thinks on the opponent's time, so that the next makeMove can reuse the work.
+     * It is called in another thread with a copy of the game while the opponent is to move, and returns when there
+     * is nothing more to think about or stopPondering is called. makeMove must not be called before it returns.
+     * By default it does nothing.
+     * @param gameStatus A copy of the game, with the opponent to move.
+     */
+    public void ponder(PlayableLogic gameStatus) {
+    }
+
+    /**
+     * Asks a ponder running in another thread to return as soon as it can.
+     */
+    public void stopPondering() {
+    }
+
+    /**
+     * Sets the opening book every AI player can consult through bookMove.
+     * @param book The book, or null for no book.
+     */
+    public static void setOpeningBook(OpeningBook book) {
+        openingBook = book;
+    }
+
+    /**
+     * Maps a book file and uses it as the opening book, if the file exists.
+     * @param file The book file.
+     * @return true if the book was loaded, false if there is no such file.
+     */
+    public static boolean loadOpeningBook(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            setOpeningBook(OpeningBook.open(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading opening book: " + file, e);
+        }
+        return true;
+    }
+
+    /**
+     * Sets the pattern weights the searching AI players evaluate positions with.
+     * @param evaluator The evaluator, or null for the default weights.
+     */
+    public static void setPatternEvaluator(PatternEvaluator evaluator) {
+        patternEvaluator = evaluator;
+    }
+
+    /**
+     * Reads a weights file and uses it for the pattern evaluation, if the file exists.
+     * @param file The weights file.
+     * @return true if the weights were loaded, false if there is no such file.
+     */
+    public static boolean loadPatternWeights(Path file) {
+        if (!Files.exists(file)) {
+            return false;
+        }
+        try {
+            setPatternEvaluator(PatternEvaluator.load(file));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error reading pattern weights: " + file, e);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the pattern weights set for the searching AI players.
+     * @return The evaluator, or null for the default weights.
+     */
+    protected static PatternEvaluator patternEvaluator() {
+        return patternEvaluator;
+    }
+
+    /**
+     * Looks up the current position in the opening book.
+     * @param gameStatus The current game status, including the board state and valid moves.
+     * @return The book move for this player, with its disc type, or null if there is no book or the position is not in it.
+     */
+    protected Move bookMove(PlayableLogic gameStatus) {
+        OpeningBook book = openingBook;
+        if (book == null || gameStatus.getBoardSize() != BitBoard.SIZE) {
+            return null;
+        }
+        int move = book.lookup(BoardState.of(gameStatus));
+        return move < 0 ? null : BoardState.toMove(move, this);
+    }
+
+    /**
+     * Sets from how few empty squares on the endgame is solved exactly instead of searched.
+     * @param endgameEmpties The number of empty squares, 0 to never solve.
+     */
+    public void setEndgameEmpties(int endgameEmpties) {
+        if (endgameEmpties < 0 || endgameEmpties > BitBoard.SQUARES) {
+            throw new IllegalArgumentException("Endgame empties must be between 0 and " + BitBoard.SQUARES + ": " + endgameEmpties);
+        }
+        this.endgameEmpties = endgameEmpties;
+    }
+
+    /**
+     * Solves the current position exactly if few enough squares are empty.
+     * @param gameStatus The current game status, including the board state and valid moves.
+     * @return The perfect move for this player, with its disc type, or null if the position has too many empties.
+     */
+    protected Move endgameMove(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE) {
+            return null;
+        }
+        BoardState state = BoardState.of(gameStatus);
+        if (state.empties() > endgameEmpties) {
+            return null;
+        }
+        if (endgameSolver == null) {
+            endgameSolver = new EndgameSolver();
+        }
+        int move = endgameSolver.solve(state);
+        return move < 0 ? null : BoardState.toMove(move, this);
+    }
+
+    /**
+     * Chooses the move with the most flips, for boards of any size.
+     * Ties are broken by the highest column and then the highest row.
+     * @param gameStatus The current game status, including the board state and valid moves.
+     * @return The move with the most flips, placing a simple disc of this player.
+     */
+    protected Move greedyMove(PlayableLogic gameStatus) {
+        int size = gameStatus.getBoardSize();
+        // Gets the flip count of every square from the game status
+        int[] counts = gameStatus.flipCounts();
+        int best = -1;
+        for (int sq = 0; sq < counts.length; sq++) {
+            if (counts[sq] > 0 && (best < 0 || counts[sq] > counts[best] || (counts[sq] == counts[best] && sq % size >= best % size))) {
+                best = sq;
+            }
+        }
+        Position p = new Position(best / size, best % size);
+        return new Move(p, new SimpleDisc(this));
+    }
 }
\ No newline at end of file
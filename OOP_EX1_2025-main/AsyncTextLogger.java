@@ -0,0 +1,136 @@
+import java.io.PrintStream;
+
+/**
+ * A GameEventListener that writes the game events as text, in the same lines the game used to print itself.
+ * The events are appended to an in-memory buffer and a background thread writes the buffer out in
+ * batches, so the game never waits for the console.
+ */
+public class AsyncTextLogger implements GameEventListener, AutoCloseable {
+    private static final long FLUSH_INTERVAL_MILLIS = 20;  // how long the writer waits for more events
+    private final PrintStream out;
+    private StringBuilder pending;  // text not yet handed to the writer, guarded by this
+    private StringBuilder writing;  // the batch the writer is printing, only used by the writer
+    private boolean closed;  // guarded by this
+    private final Thread writer;
+
+    /**
+     * Constructor for the AsyncTextLogger class.
+     * Starts the background writer as a daemon thread, so it does not keep the program alive.
+     * @param out Where to write the events.
+     */
+    public AsyncTextLogger(PrintStream out) {
+        this.out = out;
+        pending = new StringBuilder();
+        writing = new StringBuilder();
+        writer = new Thread(this::writeLoop, "game-event-logger");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public synchronized void discPlaced(int player, String type, int row, int col) {
+        pending.append("player ").append(player).append(" placed a ").append(type)
+                .append(" in (").append(row).append(", ").append(col).append(")\n");
+    }
+
+    @Override
+    public synchronized void discFlipped(int player, String type, int row, int col) {
+        pending.append("player ").append(player).append(" flipped the ").append(type)
+                .append(" in (").append(row).append(", ").append(col).append(")\n");
+    }
+
+    @Override
+    public synchronized void turnPassed(int player) {
+        pending.append("player ").append(player).append(" has no valid move and passes\n");
+    }
+
+    @Override
+    public synchronized void moveFinished() {
+        pending.append('\n');
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void undoStarted() {
+        pending.append("Undoing last move :\n");
+    }
+
+    @Override
+    public synchronized void discRemoved(String type, int row, int col) {
+        pending.append("\tUndo: removing ").append(type)
+                .append(" from (").append(row).append(", ").append(col).append(")\n");
+    }
+
+    @Override
+    public synchronized void discFlippedBack(String type, int row, int col) {
+        pending.append("\tUndo: flipping back ").append(type)
+                .append(" in (").append(row).append(", ").append(col).append(")\n");
+    }
+
+    @Override
+    public synchronized void undoFinished() {
+        pending.append('\n');
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void undoRejected() {
+        pending.append("\tNo previous move available to undo\n");
+        notifyAll();
+    }
+
+    @Override
+    public synchronized void gameOver(int winner, int firstDiscs, int secondDiscs) {
+        if (winner == 1) {
+            pending.append("player 1 win with ").append(firstDiscs).append(" disc! player 2 had ").append(secondDiscs).append(" disc\n");
+        } else if (winner == 2) {
+            pending.append("player 2 win with ").append(secondDiscs).append(" disc! player 1 had ").append(firstDiscs).append(" disc\n");
+        }
+        notifyAll();
+    }
+
+    /**
+     * Writes out everything logged so far and stops the background writer.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The background writer: waits for text, lets a burst of events collect into one batch,
+     * then swaps the buffers and prints the batch outside the lock.
+     */
+    private void writeLoop() {
+        boolean last = false;
+        while (!last) {
+            try {
+                synchronized (this) {
+                    while (pending.isEmpty() && !closed) {
+                        wait();
+                    }
+                }
+                Thread.sleep(FLUSH_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            synchronized (this) {
+                StringBuilder batch = pending;
+                pending = writing;
+                writing = batch;
+                last = closed;
+            }
+            out.append(writing);
+            out.flush();
+            writing.setLength(0);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+/**
+ * Static helpers for an 8x8 board kept as 64-bit masks.
+ * Square (row, col) is bit row*8 + col, so bit 0 is the top-left corner.
+ * All the methods work on plain longs and never allocate.
+ */
+public final class BitBoard {
+    public static final int SIZE = 8;  // rows and columns of a bitboard
+    public static final int SQUARES = SIZE * SIZE;
+    private static final long NOT_FIRST_COL = 0xFEFEFEFEFEFEFEFEL;  // every square except column 0
+    private static final long NOT_LAST_COL = 0x7F7F7F7F7F7F7F7FL;  // every square except column 7
+    // shift amount and wrap mask for each of the 8 directions (left shift for positive amounts)
+    private static final int[] SHIFTS = {-9, 9, -7, 7, 8, 1, -1, -8};
+    private static final long[] MASKS = {NOT_LAST_COL, NOT_FIRST_COL, NOT_FIRST_COL, NOT_LAST_COL, -1L, NOT_FIRST_COL, NOT_LAST_COL, -1L};
+    private static final long[] NEIGHBOURS = new long[SQUARES];  // the 8-neighbourhood of every square
+
+    static {
+        for (int sq = 0; sq < SQUARES; sq++) {
+            long bit = 1L << sq;
+            long n = 0;
+            for (int d = 0; d < 8; d++) {
+                n |= shift(bit, d);
+            }
+            NEIGHBOURS[sq] = n;
+        }
+    }
+
+    private BitBoard() {
+    }
+
+    /**
+     * Returns the bit index of a square.
+     * @param row The row of the square.
+     * @param col The column of the square.
+     * @return row*8 + col.
+     */
+    public static int square(int row, int col) {
+        return row * SIZE + col;
+    }
+
+    /**
+     * Moves every bit of a mask one step in the given direction, dropping bits that leave the board.
+     * @param x The mask to shift.
+     * @param d The direction index (0-7).
+     * @return The shifted mask.
+     */
+    public static long shift(long x, int d) {
+        int s = SHIFTS[d];
+        return (s > 0 ? x << s : x >>> -s) & MASKS[d];
+    }
+
+    /**
+     * Returns the squares surrounding a square.
+     * @param sq The bit index of the square.
+     * @return A mask of up to 8 neighbouring squares.
+     */
+    public static long neighbours(int sq) {
+        return NEIGHBOURS[sq];
+    }
+
+    /**
+     * Computes the discs flipped when the mover places a disc on an empty square.
+     * Follows the GameLogic rules: unflippable discs are jumped over but never flipped,
+     * and every flipped bomb also flips its flippable opponent neighbours, in chains.
+     * @param sq The bit index of the placed disc.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param bombs The bomb discs of both players.
+     * @param unflippables The unflippable discs of both players.
+     * @return A mask of the flipped discs, 0 if the move is not legal.
+     */
+    public static long flips(int sq, long own, long opp, long bombs, long unflippables) {
+        if ((NEIGHBOURS[sq] & opp) == 0) {
+            return 0;
+        }
+        long start = 1L << sq;
+        long flips = runUp(start, own, opp, 9, NOT_FIRST_COL) | runDown(start, own, opp, 9, NOT_LAST_COL)
+                | runUp(start, own, opp, 7, NOT_LAST_COL) | runDown(start, own, opp, 7, NOT_FIRST_COL)
+                | runUp(start, own, opp, 8, -1L) | runDown(start, own, opp, 8, -1L)
+                | runUp(start, own, opp, 1, NOT_FIRST_COL) | runDown(start, own, opp, 1, NOT_LAST_COL);
+        flips &= ~unflippables;
+        // bombs flip their neighbours, which may be bombs themselves
+        long frontier = flips & bombs;
+        while (frontier != 0) {
+            long n = 0;
+            while (frontier != 0) {
+                n |= NEIGHBOURS[Long.numberOfTrailingZeros(frontier)];
+                frontier &= frontier - 1;
+            }
+            n &= opp & ~unflippables & ~flips;
+            flips |= n;
+            frontier = n & bombs;
+        }
+        return flips;
+    }
+
+    /**
+     * Returns the opponent discs between a placed disc and the mover's next disc towards the higher bits.
+     * The fixed shift and mask of every call let the JIT unroll the eight directions of flips.
+     * @param start The placed disc.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param s The shift of one step in this direction.
+     * @param mask The squares a step in this direction can land on.
+     * @return The run of opponent discs, 0 if it is not closed by an own disc.
+     */
+    private static long runUp(long start, long own, long opp, int s, long mask) {
+        long run = 0;
+        long x = start << s & mask;
+        while ((x & opp) != 0) {
+            run |= x;
+            x = x << s & mask;
+        }
+        return (x & own) != 0 ? run : 0;
+    }
+
+    /**
+     * Returns the opponent discs between a placed disc and the mover's next disc towards the lower bits.
+     * @param start The placed disc.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param s The shift of one step in this direction.
+     * @param mask The squares a step in this direction can land on.
+     * @return The run of opponent discs, 0 if it is not closed by an own disc.
+     */
+    private static long runDown(long start, long own, long opp, int s, long mask) {
+        long run = 0;
+        long x = start >>> s & mask;
+        while ((x & opp) != 0) {
+            run |= x;
+            x = x >>> s & mask;
+        }
+        return (x & own) != 0 ? run : 0;
+    }
+
+    /**
+     * Finds every legal square for the mover with shift-and-mask direction fills.
+     * A square is legal when placing on it flips at least one disc.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param bombs The bomb discs of both players.
+     * @param unflippables The unflippable discs of both players.
+     * @return A mask of the legal squares.
+     */
+    public static long legalMoves(long own, long opp, long bombs, long unflippables) {
+        long empty = ~(own | opp);
+        long moves = 0;
+        for (int d = 0; d < 8; d++) {
+            long x = shift(own, d) & opp;
+            x |= shift(x, d) & opp;
+            x |= shift(x, d) & opp;
+            x |= shift(x, d) & opp;
+            x |= shift(x, d) & opp;
+            x |= shift(x, d) & opp;
+            moves |= shift(x, d) & empty;
+        }
+        if ((opp & unflippables) == 0) {
+            return moves;
+        }
+        // a line made only of unflippable discs does not make a move legal, so check each candidate
+        long legal = 0;
+        for (long m = moves; m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            if (flips(sq, own, opp, bombs, unflippables) != 0) {
+                legal |= 1L << sq;
+            }
+        }
+        return legal;
+    }
+}
@@ -0,0 +1,470 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Stack;
+
+/**
+ * A PlayableLogic implementation for the 8x8 board that keeps the position as 64-bit masks
+ * instead of Disc objects. It follows exactly the same rules as GameLogic, but generates
+ * moves and flips with BitBoard shift-and-mask fills, so it is much cheaper for AI matches.
+ */
+public class BitBoardLogic implements PlayableLogic {
+    private long firstDiscs;  // squares owned by player 1
+    private long secondDiscs;  // squares owned by player 2
+    private long bombs;  // squares holding a bomb disc (of either player)
+    private long unflippables;  // squares holding an unflippable disc (of either player)
+    private Player player1;
+    private Player player2;
+    private Player playerNow;  // the current player whose turn it is
+    private boolean whoPlayer;  // a flag to keep track of which of the two players is the current player
+    private final Stack<long[]> history;  // the masks before every move, the placed square and 1 if the next player passed - used in the Undo method
+    private List<Position> validMoves;  // cached valid moves of the current player, null after the board changed
+    private int[] flipCounts;  // cached flip count of every square for the current player, null after the board changed
+    private GameEventListener listener;  // receives the placements, flips, undos and results
+
+    /**
+     * Constructor for the BitBoardLogic class.
+     * initializes an empty board, the player turn flag and the undo history.
+     */
+    public BitBoardLogic() {
+        whoPlayer = true; // Player 1 starts
+        history = new Stack<>();
+        listener = GameEventListener.NONE;
+    }
+
+    /**
+     * Creates an independent copy of the game, sharing nothing that either game changes.
+     * The moves in the undo history are never changed once played, so the copy shares them.
+     * @return The copy, with stand-in players and no event listener.
+     */
+    @Override
+    public BitBoardLogic fork() {
+        BitBoardLogic copy = new BitBoardLogic();
+        copy.firstDiscs = firstDiscs;
+        copy.secondDiscs = secondDiscs;
+        copy.bombs = bombs;
+        copy.unflippables = unflippables;
+        copy.player1 = player1 == null ? null : player1.fork();
+        copy.player2 = player2 == null ? null : player2.fork();
+        copy.whoPlayer = whoPlayer;
+        copy.playerNow = whoPlayer ? copy.player1 : copy.player2;
+        copy.history.addAll(history);
+        copy.validMoves = validMoves;  // the caches are replaced, never changed
+        copy.flipCounts = flipCounts;
+        return copy;
+    }
+
+    /**
+     * Starts a new game by setting up the initial positions on the board - giving each player two discs at the center of the board.
+     */
+    public void startGame() {
+        firstDiscs = bit(3, 3) | bit(4, 4);
+        secondDiscs = bit(3, 4) | bit(4, 3);
+        bombs = 0;
+        unflippables = 0;
+        movesChanged();
+    }
+
+    /**
+     * Places a disc on the board at a specified position if the location is valid.
+     * @param a The position for locating a new disc on the board.
+     * @param disc The type of the disc to be placed.
+     * @return true if the location was valid and successful, false otherwise.
+     */
+    public boolean locate_disc(Position a, Disc disc) {
+        int r = a.row();
+        int c = a.col();
+        long placed = bit(r, c);
+        // makes sure you can't add an Unflippable or a bomb disc if you ran out of them
+        if (((firstDiscs | secondDiscs) & placed) != 0 || (disc.getType().equals("⭕") && playerNow.getNumber_of_unflippedable() == 0) || (disc.getType().equals("💣") && playerNow.getNumber_of_bombs() == 0)) {
+            return false;
+        }
+        long flips = flipsFor(r, c);
+        if (flips == 0) {
+            return false;
+        }
+        long[] before = {firstDiscs, secondDiscs, bombs, unflippables, BitBoard.square(r, c), 0};
+        history.push(before);
+        if (disc.getType().equals("⭕")) {
+            playerNow.reduce_unflippedable();
+            unflippables |= placed;
+        }
+        if (disc.getType().equals("💣")) {
+            playerNow.reduce_bomb();
+            bombs |= placed;
+        }
+        if (whoPlayer) {
+            firstDiscs |= placed | flips;
+            secondDiscs &= ~flips;
+        } else {
+            secondDiscs |= placed | flips;
+            firstDiscs &= ~flips;
+        }
+        if (listener != GameEventListener.NONE) {
+            listener.discPlaced(playerType(), disc.getType(), r, c);
+            for (long f = flips; f != 0; f &= f - 1) {
+                int sq = Long.numberOfTrailingZeros(f);
+                listener.discFlipped(playerType(), typeAt(sq), sq / BitBoard.SIZE, sq % BitBoard.SIZE);
+            }
+        }
+        // Changes the turn from the current player to the next player, unless the next player has to pass
+        if (opponentMoves() != 0 || legalMoves() == 0) {
+            whoPlayer = !whoPlayer;
+            playerNow = whoPlayer ? player1 : player2;
+        } else {
+            before[5] = 1;
+            listener.turnPassed(3 - playerType());
+        }
+        listener.moveFinished();
+        movesChanged();
+        return true;
+    }
+
+    /**
+     * Determines the current player's type (1 for player1, 2 for player2).
+     * @return 1 if it's player1's turn, 2 if it's player2's turn.
+     */
+    public int playerType() {
+        if (playerNow == player1) {
+            return 1;
+        }
+        return 2;
+    }
+
+    /**
+     * Returns the disc that is placed at the given position.
+     * The board holds no Disc objects, so a new disc of the right type and owner is returned.
+     * @param position The position of the disc to return.
+     * @return The disc at the specified position, or null if the square is empty.
+     */
+    public Disc getDiscAtPosition(Position position) {
+        long b = bit(position.row(), position.col());
+        Player owner;
+        if ((firstDiscs & b) != 0) {
+            owner = player1;
+        } else if ((secondDiscs & b) != 0) {
+            owner = player2;
+        } else {
+            return null;
+        }
+        if ((bombs & b) != 0) {
+            return new BombDisc(owner);
+        }
+        if ((unflippables & b) != 0) {
+            return new UnflippableDisc(owner);
+        }
+        return new SimpleDisc(owner);
+    }
+
+    /**
+     * Returns what is on a square as a number, read from the bitboards without creating a Disc.
+     * @param position The position to look at.
+     * @return 0 for an empty square, else 1 for a simple disc, 2 for an unflippable disc and 3 for a bomb, plus 3 for player 2.
+     */
+    public int discCode(Position position) {
+        long b = bit(position.row(), position.col());
+        int code;
+        if ((firstDiscs & b) != 0) {
+            code = 1;
+        } else if ((secondDiscs & b) != 0) {
+            code = 4;
+        } else {
+            return 0;
+        }
+        if ((bombs & b) != 0) {
+            return code + 2;
+        }
+        if ((unflippables & b) != 0) {
+            return code + 1;
+        }
+        return code;
+    }
+
+    /**
+     * Returns the size of the game board.
+     * @return The size of the board (8 for a 8x8 board).
+     */
+    public int getBoardSize() {
+        return BitBoard.SIZE;
+    }
+
+    /**
+     * Returns a list of all the valid moves for the current player to choose from.
+     * The list is cached until the board changes.
+     * @return An unmodifiable list of valid positions where the current player can place a disc.
+     */
+    public List<Position> ValidMoves() {
+        if (validMoves == null) {
+            scanMoves();
+        }
+        return validMoves;
+    }
+
+    /**
+     * Counts the number of discs that would be flipped if a disc is placed at a specified position.
+     * @param a The position to check for flips from.
+     * @return The number of flips that would occur.
+     */
+    public int countFlips(Position a) {
+        int sq = BitBoard.square(a.row(), a.col());
+        if (((firstDiscs | secondDiscs) & (1L << sq)) == 0) {
+            if (flipCounts == null) {
+                scanMoves();
+            }
+            return flipCounts[sq];
+        }
+        if (whoPlayer) {
+            return Long.bitCount(BitBoard.flips(sq, firstDiscs, secondDiscs, bombs, unflippables));
+        }
+        return Long.bitCount(BitBoard.flips(sq, secondDiscs, firstDiscs, bombs, unflippables));
+    }
+
+    /**
+     * Counts the flips of every legal square of the current player, cached until the board changes.
+     * @return A copy of the 64 flip counts indexed by row*8+col, 0 for squares that are not valid moves.
+     */
+    public int[] flipCounts() {
+        if (flipCounts == null) {
+            scanMoves();
+        }
+        return flipCounts.clone();
+    }
+
+    /**
+     * Copies the cached flip counts of the current player into a given array.
+     * @param counts An array of at least 64 counts, which is overwritten.
+     * @return counts.
+     */
+    public int[] flipCounts(int[] counts) {
+        if (flipCounts == null) {
+            scanMoves();
+        }
+        System.arraycopy(flipCounts, 0, counts, 0, BitBoard.SQUARES);
+        return counts;
+    }
+
+    /**
+     * Fills the cached flip counts and valid moves of the current player from the legal-move mask.
+     */
+    private void scanMoves() {
+        int[] counts = new int[BitBoard.SQUARES];
+        List<Position> validList = new ArrayList<>();
+        for (long m = legalMoves(); m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            counts[sq] = Long.bitCount(flipsFor(sq / BitBoard.SIZE, sq % BitBoard.SIZE));
+            validList.add(new Position(sq / BitBoard.SIZE, sq % BitBoard.SIZE));
+        }
+        flipCounts = counts;
+        validMoves = Collections.unmodifiableList(validList);
+    }
+
+    /**
+     * Drops the cached valid moves and flip counts - called whenever the board or the turn changes.
+     */
+    private void movesChanged() {
+        validMoves = null;
+        flipCounts = null;
+    }
+
+    /**
+     * Returns the first player.
+     * @return Player 1.
+     */
+    public Player getFirstPlayer() {
+        return player1;
+    }
+
+    /**
+     * Returns the second player.
+     * @return Player 2.
+     */
+    public Player getSecondPlayer() {
+        return player2;
+    }
+
+    /**
+     * Sets the two players for the game.
+     * @param player1 The first player.
+     * @param player2 The second player.
+     */
+    public void setPlayers(Player player1, Player player2) {
+        this.player1 = player1;
+        this.player2 = player2;
+        playerNow = player1;
+        movesChanged();
+    }
+
+    /**
+     * Sets who receives the game events - placements, flips, undos and the result.
+     * @param listener The listener, or null to stop reporting.
+     */
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener == null ? GameEventListener.NONE : listener;
+    }
+
+    /**
+     * Checks if it is the first player's turn.
+     * @return true if it's the first player's turn, false otherwise.
+     */
+    public boolean isFirstPlayerTurn() {
+        return whoPlayer;
+    }
+
+    /**
+     * Determines if the game has finished, and if so records the result - a win for the player with more discs.
+     * @return true if the game is finished, false otherwise.
+     */
+    public boolean isGameFinished() {
+        GameStatus status = status();
+        if (status.isGameOver()) {
+            recordResult(status);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reports where the game stands without changing anything.
+     * @return The status of the game.
+     */
+    public GameStatus status() {
+        return GameStatus.of(Long.bitCount(legalMoves()), Long.bitCount(opponentMoves()), Long.bitCount(firstDiscs), Long.bitCount(secondDiscs));
+    }
+
+    /**
+     * Records the result of a finished game: a win for the player with more discs, and the game over event.
+     */
+    public void recordResult() {
+        GameStatus status = status();
+        if (!status.isGameOver()) {
+            throw new IllegalStateException("The game is not over yet");
+        }
+        recordResult(status);
+    }
+
+    /**
+     * Records the result of a finished game.
+     * @param status The final status.
+     */
+    private void recordResult(GameStatus status) {
+        if (status.winner() == 1) {
+            player1.addWin();
+        } else if (status.winner() == 2) {
+            player2.addWin();
+        }
+        listener.gameOver(status.winner(), status.firstDiscs(), status.secondDiscs());
+    }
+
+    /**
+     * Resets the game board and the players settings to start a new game.
+     */
+    public void reset() {
+        startGame();
+        whoPlayer = true;
+        playerNow = player1;
+        history.clear();
+        player1.reset_bombs_and_unflippedable();
+        player2.reset_bombs_and_unflippedable();
+    }
+
+    /**
+     * Undoes the last move, restoring the game board and player states.
+     * Only works if both players are human.
+     */
+    public void undoLastMove() {
+        if (player1.isHuman() && player2.isHuman() && !history.empty()) {
+            long[] before = history.pop();
+            int sq = (int) before[4];
+            long placed = 1L << sq;
+            boolean passed = before[5] == 1;
+            Player mover = whoPlayer == passed ? player1 : player2;  // the player who made the undone move
+            if ((unflippables & placed) != 0) {
+                mover.number_of_unflippedable++;
+            }
+            if ((bombs & placed) != 0) {
+                mover.number_of_bombs++;
+            }
+            if (listener != GameEventListener.NONE) {
+                listener.undoStarted();
+                listener.discRemoved(typeAt(sq), sq / BitBoard.SIZE, sq % BitBoard.SIZE);
+                long flipped = (firstDiscs ^ before[0]) & ~placed;
+                for (long f = flipped; f != 0; f &= f - 1) {
+                    int s = Long.numberOfTrailingZeros(f);
+                    listener.discFlippedBack(typeAt(s), s / BitBoard.SIZE, s % BitBoard.SIZE);
+                }
+            }
+            firstDiscs = before[0];
+            secondDiscs = before[1];
+            bombs = before[2];
+            unflippables = before[3];
+            if (!passed) {
+                whoPlayer = !whoPlayer;
+                playerNow = whoPlayer ? player1 : player2;
+            }
+            movesChanged();
+            listener.undoFinished();
+        }
+        else {
+            listener.undoRejected();
+        }
+    }
+
+    /**
+     * Returns the legal squares of the current player.
+     * @return A mask of the squares where the current player can place a disc.
+     */
+    private long legalMoves() {
+        if (whoPlayer) {
+            return BitBoard.legalMoves(firstDiscs, secondDiscs, bombs, unflippables);
+        }
+        return BitBoard.legalMoves(secondDiscs, firstDiscs, bombs, unflippables);
+    }
+
+    /**
+     * Returns the legal squares of the player who is not to move.
+     * @return A mask of the squares where the other player could place a disc.
+     */
+    private long opponentMoves() {
+        if (whoPlayer) {
+            return BitBoard.legalMoves(secondDiscs, firstDiscs, bombs, unflippables);
+        }
+        return BitBoard.legalMoves(firstDiscs, secondDiscs, bombs, unflippables);
+    }
+
+    /**
+     * Returns the discs the current player would flip by placing at the given square.
+     * @param r The row of the square.
+     * @param c The column of the square.
+     * @return A mask of the flipped discs, 0 if the square is occupied or the move is not legal.
+     */
+    private long flipsFor(int r, int c) {
+        long b = bit(r, c);
+        if (((firstDiscs | secondDiscs) & b) != 0) {
+            return 0;
+        }
+        if (whoPlayer) {
+            return BitBoard.flips(BitBoard.square(r, c), firstDiscs, secondDiscs, bombs, unflippables);
+        }
+        return BitBoard.flips(BitBoard.square(r, c), secondDiscs, firstDiscs, bombs, unflippables);
+    }
+
+    /**
+     * Returns the type symbol of the disc on an occupied square.
+     * @param sq The bit index of the square.
+     * @return "💣", "⭕" or "⬤".
+     */
+    private String typeAt(int sq) {
+        long b = 1L << sq;
+        if ((bombs & b) != 0) {
+            return "💣";
+        }
+        if ((unflippables & b) != 0) {
+            return "⭕";
+        }
+        return "⬤";
+    }
+
+    private static long bit(int r, int c) {
+        return 1L << BitBoard.square(r, c);
+    }
+}
@@ -0,0 +1,181 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * Draws the board of a PlayableLogic as one component, in place of a grid of buttons.
+ * The discs are drawn from images rendered once per cell size, and refresh() compares the board with what was
+ * drawn last time and repaints only the cells that changed: the placed disc, the flipped ones and the hints.
+ */
+public class BoardCanvas extends JComponent {
+    private static final Color LIGHT = Color.WHITE;
+    private static final Color DARK = Color.BLACK;
+    private static final Color LIGHT_HINT = new Color(199, 255, 199);  // light green
+    private static final Color DARK_HINT = new Color(0, 100, 0);  // dark green
+    private static final Color FIRST_COLOR = Color.BLUE;
+    private static final Color SECOND_COLOR = Color.RED;
+    private static final String[] TYPES = {"⬤", "⭕", "💣"};
+    private static final String FONT_NAME = "DejaVu Sans";
+    private final PlayableLogic gameLogic;
+    private final int size;  // the board has size x size cells
+    // what every cell shows: the PlayableLogic.discCode of its disc, which is 1 + TYPES index + 3 for player 2, plus the hint count times 8
+    private final int[] shown;
+    private final int[] flipCounts;  // the hint counts, reused by every refresh
+    private final Position[][] positions;  // reused for every lookup of the board
+    private final BufferedImage[] discImages = new BufferedImage[2 * TYPES.length];  // for the owner and type, see shown
+    private int imageCell;  // the cell size the disc images were rendered for, 0 for none
+    private Font numberFont;  // for the hint counts, sized with the disc images
+    private boolean showNumbers = true;
+
+    /**
+     * Constructor for the BoardCanvas class.
+     * @param gameLogic The game to draw.
+     * @param cellSize The preferred width and height of a cell, in pixels.
+     * @param onClick Called with the position of a clicked cell.
+     */
+    public BoardCanvas(PlayableLogic gameLogic, int cellSize, Consumer<Position> onClick) {
+        this.gameLogic = gameLogic;
+        size = gameLogic.getBoardSize();
+        shown = new int[size * size];
+        flipCounts = new int[size * size];
+        positions = new Position[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                positions[row][col] = new Position(row, col);
+            }
+        }
+        setPreferredSize(new Dimension(size * cellSize, size * cellSize));
+        setOpaque(true);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int cell = cellSize();
+                int row = e.getY() / cell;
+                int col = e.getX() / cell;
+                if (row < size && col < size && SwingUtilities.isLeftMouseButton(e)) {
+                    onClick.accept(positions[row][col]);
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets whether the hint cells show their flip counts or only their color.
+     * Takes effect on the next refresh.
+     * @param showNumbers true to show the counts.
+     */
+    public void setShowNumbers(boolean showNumbers) {
+        this.showNumbers = showNumbers;
+    }
+
+    /**
+     * Repaints the cells whose disc or hint changed since the last refresh.
+     * @param showHints true to mark the current player's valid moves with their flip counts.
+     */
+    public void refresh(boolean showHints) {
+        if (showHints) {
+            gameLogic.flipCounts(flipCounts);
+        }
+        int cell = cellSize();
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int index = row * size + col;
+                int code = gameLogic.discCode(positions[row][col]);
+                if (showHints && flipCounts[index] > 0) {
+                    code |= (showNumbers ? flipCounts[index] : 1) << 3;
+                }
+                if (shown[index] != code) {
+                    shown[index] = code;
+                    repaint(col * cell, row * cell, cell, cell);
+                }
+            }
+        }
+    }
+
+    private int cellSize() {
+        return Math.max(1, Math.min(getWidth(), getHeight()) / size);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int cell = cellSize();
+        if (cell != imageCell) {
+            renderImages(cell);
+        }
+        g.setColor(getParent() != null ? getParent().getBackground() : LIGHT);
+        g.fillRect(0, 0, getWidth(), getHeight());
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        // only the cells under the clip, which after a refresh is the union of the changed cells
+        int firstRow = Math.max(0, clip.y / cell);
+        int lastRow = Math.min(size - 1, (clip.y + clip.height - 1) / cell);
+        int firstCol = Math.max(0, clip.x / cell);
+        int lastCol = Math.min(size - 1, (clip.x + clip.width - 1) / cell);
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                paintCell(g, row, col, cell);
+            }
+        }
+    }
+
+    /**
+     * Paints one cell from its shown code.
+     * @param g The graphics to paint with.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @param cell The cell size in pixels.
+     */
+    private void paintCell(Graphics g, int row, int col, int cell) {
+        int code = shown[row * size + col];
+        int hint = code >>> 3;
+        boolean dark = (row + col) % 2 != 0;
+        int x = col * cell;
+        int y = row * cell;
+        if (hint > 0) {
+            g.setColor(dark ? DARK_HINT : LIGHT_HINT);
+        } else {
+            g.setColor(dark ? DARK : LIGHT);
+        }
+        g.fillRect(x, y, cell, cell);
+        int disc = code & 7;
+        if (disc > 0) {
+            g.drawImage(discImages[disc - 1], x, y, null);
+        } else if (hint > 0 && showNumbers) {
+            String text = Integer.toString(hint);
+            g.setFont(numberFont);
+            FontMetrics metrics = g.getFontMetrics();
+            g.setColor(Color.BLACK);
+            g.drawString(text, x + (cell - metrics.stringWidth(text)) / 2, y + (cell - metrics.getHeight()) / 2 + metrics.getAscent());
+        }
+    }
+
+    /**
+     * Renders the disc images for a cell size, so painting a disc is a single image copy
+     * instead of laying out an emoji glyph through font fallback.
+     * @param cell The cell size in pixels.
+     */
+    private void renderImages(int cell) {
+        Font font = new Font(FONT_NAME, Font.PLAIN, Math.max(1, cell * 20 / 55));  // the button grid used 20pt in 55px
+        for (int owner = 0; owner < 2; owner++) {
+            for (int type = 0; type < TYPES.length; type++) {
+                BufferedImage image = new BufferedImage(cell, cell, BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g = image.createGraphics();
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g.setFont(font);
+                g.setColor(owner == 0 ? FIRST_COLOR : SECOND_COLOR);
+                FontMetrics metrics = g.getFontMetrics();
+                g.drawString(TYPES[type], (cell - metrics.stringWidth(TYPES[type])) / 2,
+                        (cell - metrics.getHeight()) / 2 + metrics.getAscent());
+                g.dispose();
+                discImages[owner * TYPES.length + type] = image;
+            }
+        }
+        numberFont = font;
+        imageCell = cell;
+    }
+}
@@ -0,0 +1,272 @@
+/**
+ * A private, compact copy of an 8x8 game used by the search engines.
+ * It holds the BitBoard masks, the side to move and both players' remaining special discs,
+ * and it can be copied and played on without touching the live PlayableLogic or its players.
+ * Moves are encoded as ints: the square in the low 6 bits and the disc type above them, and PASS when
+ * the player to move has no valid square but the opponent has.
+ * The state keeps its Zobrist hash up to date with every placement and flip.
+ */
+public class BoardState {
+    public static final int SIMPLE = 0;  // disc type of a "⬤" move
+    public static final int UNFLIPPABLE = 1;  // disc type of a "⭕" move
+    public static final int BOMB = 2;  // disc type of a "💣" move
+    public static final int PASS = BitBoard.SQUARES * 3;  // the only move of a player who has no valid square
+    public static final int MAX_MOVES = PASS + 1;  // every square with every disc type, and the pass
+
+    final long[] discs = new long[2];  // discs of player 1 (index 0) and player 2 (index 1)
+    long bombs;  // bomb discs of both players
+    long unflippables;  // unflippable discs of both players
+    int side;  // the player to move: 0 for player 1, 1 for player 2
+    final int[] bombsLeft = new int[2];  // bombs each player can still place
+    final int[] unflippablesLeft = new int[2];  // unflippable discs each player can still place
+    long hash;  // Zobrist hash of all of the above
+
+    /**
+     * Creates the starting position: two discs each in the center and full inventories, player 1 to move.
+     * @return A new state holding the starting position.
+     */
+    public static BoardState start() {
+        BoardState state = new BoardState();
+        state.discs[0] = 1L << BitBoard.square(3, 3) | 1L << BitBoard.square(4, 4);
+        state.discs[1] = 1L << BitBoard.square(3, 4) | 1L << BitBoard.square(4, 3);
+        for (int p = 0; p < 2; p++) {
+            state.bombsLeft[p] = Player.initial_number_of_bombs;
+            state.unflippablesLeft[p] = Player.initial_number_of_unflippedable;
+        }
+        state.hash = Zobrist.hash(state);
+        return state;
+    }
+
+    /**
+     * Creates a copy of the current position of a game.
+     * @param game The game to copy, it must use an 8x8 board.
+     * @return A new state holding the same discs, turn and inventories.
+     */
+    public static BoardState of(PlayableLogic game) {
+        if (game.getBoardSize() != BitBoard.SIZE) {
+            throw new IllegalArgumentException("Search needs an 8x8 board, got " + game.getBoardSize());
+        }
+        BoardState state = new BoardState();
+        for (int r = 0; r < BitBoard.SIZE; r++) {
+            for (int c = 0; c < BitBoard.SIZE; c++) {
+                Disc disc = game.getDiscAtPosition(new Position(r, c));
+                if (disc != null) {
+                    long b = 1L << BitBoard.square(r, c);
+                    state.discs[disc.getOwner().isPlayerOne() ? 0 : 1] |= b;
+                    if (disc.getType().equals("💣")) {
+                        state.bombs |= b;
+                    } else if (disc.getType().equals("⭕")) {
+                        state.unflippables |= b;
+                    }
+                }
+            }
+        }
+        state.side = game.isFirstPlayerTurn() ? 0 : 1;
+        state.bombsLeft[0] = game.getFirstPlayer().getNumber_of_bombs();
+        state.bombsLeft[1] = game.getSecondPlayer().getNumber_of_bombs();
+        state.unflippablesLeft[0] = game.getFirstPlayer().getNumber_of_unflippedable();
+        state.unflippablesLeft[1] = game.getSecondPlayer().getNumber_of_unflippedable();
+        state.hash = Zobrist.hash(state);
+        return state;
+    }
+
+    /**
+     * Overwrites this state with another one.
+     * @param other The state to copy.
+     */
+    public void copyFrom(BoardState other) {
+        discs[0] = other.discs[0];
+        discs[1] = other.discs[1];
+        bombs = other.bombs;
+        unflippables = other.unflippables;
+        side = other.side;
+        bombsLeft[0] = other.bombsLeft[0];
+        bombsLeft[1] = other.bombsLeft[1];
+        unflippablesLeft[0] = other.unflippablesLeft[0];
+        unflippablesLeft[1] = other.unflippablesLeft[1];
+        hash = other.hash;
+    }
+
+    /**
+     * Returns the legal squares of the player to move.
+     * @return A mask of the squares where the player to move can place a disc.
+     */
+    public long legalSquares() {
+        return BitBoard.legalMoves(discs[side], discs[side ^ 1], bombs, unflippables);
+    }
+
+    /**
+     * Writes every legal move of the player to move, one per square and affordable disc type.
+     * A player with no valid square gets the single move PASS if the opponent can move.
+     * @param moves The buffer to fill, at least MAX_MOVES long.
+     * @return The number of moves written, 0 if the game is over.
+     */
+    public int generateMoves(int[] moves) {
+        int n = 0;
+        for (long m = legalSquares(); m != 0; m &= m - 1) {
+            int sq = Long.numberOfTrailingZeros(m);
+            moves[n++] = sq;
+            if (unflippablesLeft[side] > 0) {
+                moves[n++] = move(sq, UNFLIPPABLE);
+            }
+            if (bombsLeft[side] > 0) {
+                moves[n++] = move(sq, BOMB);
+            }
+        }
+        if (n == 0 && opponentSquares() != 0) {
+            moves[n++] = PASS;
+        }
+        return n;
+    }
+
+    /**
+     * Returns the legal squares of the player who is not to move.
+     * @return A mask of the squares where the opponent could place a disc.
+     */
+    public long opponentSquares() {
+        return BitBoard.legalMoves(discs[side ^ 1], discs[side], bombs, unflippables);
+    }
+
+    /**
+     * Checks if the game is over - when neither player has a valid move.
+     * @return true if the game is over.
+     */
+    public boolean isGameOver() {
+        return legalSquares() == 0 && opponentSquares() == 0;
+    }
+
+    /**
+     * Plays a legal move for the player to move and passes the turn.
+     * @param move The move to play, or PASS to only pass the turn.
+     */
+    public void play(int move) {
+        if (move == PASS) {
+            hash ^= Zobrist.SECOND_TO_MOVE;
+            side ^= 1;
+            return;
+        }
+        int sq = square(move);
+        int type = type(move);
+        long placed = 1L << sq;
+        long flips = BitBoard.flips(sq, discs[side], discs[side ^ 1], bombs, unflippables);
+        discs[side] |= placed | flips;
+        discs[side ^ 1] &= ~flips;
+        long h = hash ^ Zobrist.DISCS[side][type][sq] ^ Zobrist.SECOND_TO_MOVE;
+        for (long f = flips; f != 0; f &= f - 1) {
+            int s = Long.numberOfTrailingZeros(f);
+            int t = (bombs & (1L << s)) != 0 ? BOMB : SIMPLE;  // unflippable discs are never flipped
+            h ^= Zobrist.DISCS[side ^ 1][t][s] ^ Zobrist.DISCS[side][t][s];
+        }
+        if (type == UNFLIPPABLE) {
+            unflippables |= placed;
+            h ^= Zobrist.UNFLIPPABLES_LEFT[side][unflippablesLeft[side]];
+            unflippablesLeft[side]--;
+            h ^= Zobrist.UNFLIPPABLES_LEFT[side][unflippablesLeft[side]];
+        } else if (type == BOMB) {
+            bombs |= placed;
+            h ^= Zobrist.BOMBS_LEFT[side][bombsLeft[side]];
+            bombsLeft[side]--;
+            h ^= Zobrist.BOMBS_LEFT[side][bombsLeft[side]];
+        }
+        hash = h;
+        side ^= 1;
+    }
+
+    /**
+     * Returns the disc type on an occupied square.
+     * @param sq The square.
+     * @return SIMPLE, UNFLIPPABLE or BOMB.
+     */
+    public int typeAt(int sq) {
+        long b = 1L << sq;
+        if ((bombs & b) != 0) {
+            return BOMB;
+        }
+        if ((unflippables & b) != 0) {
+            return UNFLIPPABLE;
+        }
+        return SIMPLE;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position, covering the discs, the side to move and the special discs left.
+     * @return The hash.
+     */
+    public long hash() {
+        return hash;
+    }
+
+    /**
+     * Returns the disc count of the player to move minus the disc count of the opponent.
+     * @return The disc difference from the point of view of the player to move.
+     */
+    public int discDifference() {
+        return Long.bitCount(discs[side]) - Long.bitCount(discs[side ^ 1]);
+    }
+
+    /**
+     * Checks if it is player 1's turn.
+     * @return true if player 1 is to move.
+     */
+    public boolean isFirstPlayerTurn() {
+        return side == 0;
+    }
+
+    /**
+     * Returns the number of empty squares.
+     * @return The empty squares left on the board.
+     */
+    public int empties() {
+        return BitBoard.SQUARES - Long.bitCount(discs[0] | discs[1]);
+    }
+
+    /**
+     * Encodes a move.
+     * @param sq The square of the move.
+     * @param type SIMPLE, UNFLIPPABLE or BOMB.
+     * @return The encoded move.
+     */
+    public static int move(int sq, int type) {
+        return sq | type << 6;
+    }
+
+    /**
+     * Decodes the square of a move.
+     * @param move An encoded move.
+     * @return The square of the move.
+     */
+    public static int square(int move) {
+        return move & 63;
+    }
+
+    /**
+     * Decodes the disc type of a move.
+     * @param move An encoded move.
+     * @return The disc type of the move.
+     */
+    public static int type(int move) {
+        return move >>> 6;
+    }
+
+    /**
+     * Converts an encoded move into a Move that can be handed to the GUI.
+     * @param move The encoded move.
+     * @param owner The player placing the disc.
+     * @return A move with the position and a new disc of the right type.
+     */
+    public static Move toMove(int move, Player owner) {
+        if (move < 0 || move >= PASS) {
+            throw new IllegalArgumentException("Not a disc placement: " + move);
+        }
+        int sq = square(move);
+        Disc disc;
+        if (type(move) == BOMB) {
+            disc = new BombDisc(owner);
+        } else if (type(move) == UNFLIPPABLE) {
+            disc = new UnflippableDisc(owner);
+        } else {
+            disc = new SimpleDisc(owner);
+        }
+        return new Move(new Position(sq / BitBoard.SIZE, sq % BitBoard.SIZE), disc);
+    }
+}
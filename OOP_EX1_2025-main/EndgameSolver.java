@@ -0,0 +1,476 @@
+/**
+ * An exact endgame search: plays the rest of the game out perfectly for both players and reports the final disc difference.
+ * It searches every empty square with every disc type the players can still afford, so the remaining bombs and
+ * unflippable discs are part of the result. It is a null-window negamax over the disc difference with
+ * fastest-first ordering (the moves that leave the opponent the fewest replies first) near the root, parity ordering
+ * (squares in regions with an odd number of empties first) near the leaves, and a small hash table of score bounds.
+ * A special disc is only tried where it could still be flipped: on a square whose lines are full and that has
+ * no bomb next to it, every disc type ends the same, so only the simple disc (keeping the special one) is searched.
+ * The root is solved with a series of null-window searches that home in on the score.
+ * The last few empties are searched on plain masks without copying positions, the last empty square is solved
+ * directly, and all buffers are allocated once, so a solve does not allocate per node.
+ */
+public class EndgameSolver {
+    public static final int DEFAULT_EMPTIES = 12;  // the AIs solve exactly once this few squares are empty
+    private static final int HASH_BITS = 18;  // 2^18 entries of 16 bytes = 4 MB
+    private static final int HASH_EMPTIES = 8;  // nodes with fewer empties are not stored in the hash table
+    private static final int FASTEST_FIRST_EMPTIES = 8;  // nodes with fewer empties are ordered by parity only
+    private static final int SHALLOW_EMPTIES = 6;  // nodes with this few empties are searched on plain masks
+    private static final int NO_MOVE = 0xFF;
+    private static final long[] QUADRANTS = {
+            0x000000000F0F0F0FL, 0x00000000F0F0F0F0L, 0x0F0F0F0F00000000L, 0xF0F0F0F000000000L};
+    private static final long[] LINES = new long[BitBoard.SQUARES];  // the row, column and diagonals through every square
+
+    static {
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            for (int d = 0; d < 8; d++) {
+                for (long x = BitBoard.shift(1L << sq, d); x != 0; x = BitBoard.shift(x, d)) {
+                    LINES[sq] |= x;
+                }
+            }
+        }
+    }
+
+    private final long[] table;  // per entry the key xor-ed with the data, then the data
+    private final long tableMask;  // number of entries - 1
+    private final BoardState[] stack;  // the position at every ply of the current line
+    private final int[][] moves;  // generated moves at every ply
+    private final int[][] orderScores;  // move ordering scores matching the moves
+    private int rootBest;  // the root move that reached the last window
+    private long nodes;
+    private long elapsedNanos;
+    private int score;
+
+    /**
+     * Constructor for the EndgameSolver class.
+     */
+    public EndgameSolver() {
+        table = new long[2 << HASH_BITS];
+        tableMask = (1L << HASH_BITS) - 1;
+        int plies = 2 * BitBoard.SQUARES + 2;  // every move may be followed by a pass
+        stack = new BoardState[plies];
+        for (int i = 0; i < plies; i++) {
+            stack[i] = new BoardState();
+        }
+        moves = new int[plies][BoardState.MAX_MOVES];
+        orderScores = new int[plies][BoardState.MAX_MOVES];
+    }
+
+    /**
+     * Finds the best move of a position by searching it to the end of the game.
+     * The final disc difference under perfect play is available from getScore afterwards.
+     * @param root The position to solve, it is not modified.
+     * @return The best encoded move, or -1 if the player to move has no valid square.
+     */
+    public int solve(BoardState root) {
+        long start = System.nanoTime();
+        nodes = 0;
+        stack[0].copyFrom(root);
+        int[] list = moves[0];
+        int n = stack[0].generateMoves(list);
+        if (n == 0 || list[0] == BoardState.PASS) {
+            score = negamax(0, -BitBoard.SQUARES, BitBoard.SQUARES);
+            elapsedNanos = System.nanoTime() - start;
+            return -1;
+        }
+        orderMoves(0, n, probeMove(stack[0].hash));
+        for (int i = 0; i < n; i++) {
+            pickNext(0, i, n);  // sorts the root moves once, the windows below reuse the order
+        }
+        // narrow the score down with null windows, each one telling whether the score is below a bound or not
+        int lower = -BitBoard.SQUARES;
+        int upper = BitBoard.SQUARES;
+        int guess = 0;
+        int best = list[0];
+        while (lower < upper) {
+            int beta = guess == lower ? guess + 1 : guess;
+            guess = searchRoot(n, beta);
+            if (guess < beta) {
+                upper = guess;
+            } else {
+                lower = guess;
+                best = rootBest;
+            }
+        }
+        score = lower;
+        store(stack[0].hash, best, score, score);
+        elapsedNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * Tests every root move against a null window, stopping at the first one that reaches it.
+     * @param n The number of root moves.
+     * @param beta The bound to test, the window is beta - 1 to beta.
+     * @return The best score found: a lower bound of the root score if it reaches beta, an upper bound otherwise.
+     */
+    private int searchRoot(int n, int beta) {
+        int best = -BitBoard.SQUARES - 1;
+        for (int i = 0; i < n; i++) {
+            int move = moves[0][i];
+            stack[1].copyFrom(stack[0]);
+            stack[1].play(move);
+            int value = -negamax(1, -beta, -beta + 1);
+            if (value > best) {
+                best = value;
+                if (value >= beta) {
+                    rootBest = move;
+                    moveToFront(n, i);  // the next window starts from the move that reached this one
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Moves a root move to the front of the list, keeping the order of the others.
+     * @param n The number of root moves.
+     * @param i The index of the move.
+     */
+    private void moveToFront(int n, int i) {
+        int move = moves[0][i];
+        System.arraycopy(moves[0], 0, moves[0], 1, i);
+        moves[0][0] = move;
+    }
+
+    /**
+     * The recursive null-window negamax over the final disc difference.
+     * @param ply The distance from the root.
+     * @param alpha The lower bound of the window.
+     * @param beta The upper bound of the window.
+     * @return The final disc difference from the point of view of the player to move, exact inside the window.
+     */
+    private int negamax(int ply, int alpha, int beta) {
+        BoardState pos = stack[ply];
+        int empties = pos.empties();
+        if (empties <= SHALLOW_EMPTIES) {
+            int side = pos.side;
+            return shallow(pos.discs[side], pos.discs[side ^ 1], pos.bombs, pos.unflippables,
+                    pos.bombsLeft[side], pos.unflippablesLeft[side], pos.bombsLeft[side ^ 1], pos.unflippablesLeft[side ^ 1],
+                    alpha, beta, false);
+        }
+        nodes++;
+        int ttMove = -1;
+        if (empties >= HASH_EMPTIES) {
+            long data = probe(pos.hash);
+            if (data != 0) {
+                int lower = lower(data);
+                int upper = upper(data);
+                if (lower >= beta) {
+                    return lower;
+                }
+                if (upper <= alpha) {
+                    return upper;
+                }
+                if (lower == upper) {
+                    return lower;
+                }
+                alpha = Math.max(alpha, lower);
+                beta = Math.min(beta, upper);
+                ttMove = move(data);
+            }
+        }
+        int[] list = moves[ply];
+        int n = pos.generateMoves(list);
+        BoardState child = stack[ply + 1];
+        if (n == 0) {
+            return pos.discDifference();  // neither player can move, the game is over
+        }
+        if (list[0] == BoardState.PASS) {
+            child.copyFrom(pos);
+            child.play(BoardState.PASS);
+            return -negamax(ply + 1, -beta, -alpha);
+        }
+        orderMoves(ply, n, ttMove);
+        int alphaStart = alpha;
+        int best = -BitBoard.SQUARES - 1;
+        int bestMove = -1;
+        long empty = ~(pos.discs[0] | pos.discs[1]);
+        for (int i = 0; i < n; i++) {
+            int move = pickNext(ply, i, n);
+            int sq = BoardState.square(move);
+            if (BoardState.type(move) != BoardState.SIMPLE && !typeMatters(sq, empty & ~(1L << sq), pos.bombs)) {
+                continue;
+            }
+            child.copyFrom(pos);
+            child.play(move);
+            int value;
+            if (i == 0) {
+                value = -negamax(ply + 1, -beta, -alpha);
+            } else {
+                value = -negamax(ply + 1, -alpha - 1, -alpha);
+                if (value > alpha && value < beta) {
+                    value = -negamax(ply + 1, -beta, -alpha);
+                }
+            }
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                if (value > alpha) {
+                    alpha = value;
+                    if (alpha >= beta) {
+                        break;
+                    }
+                }
+            }
+        }
+        if (empties >= HASH_EMPTIES) {
+            store(pos.hash, bestMove, best > alphaStart ? best : -BitBoard.SQUARES, best < beta ? best : BitBoard.SQUARES);
+        }
+        return best;
+    }
+
+    /**
+     * Searches a position near the end on plain masks, trying the squares of odd regions first.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param bombs The bomb discs of both players.
+     * @param unflippables The unflippable discs of both players.
+     * @param ownBombs The bombs the player to move can still place.
+     * @param ownUnflippables The unflippable discs the player to move can still place.
+     * @param oppBombs The bombs the opponent can still place.
+     * @param oppUnflippables The unflippable discs the opponent can still place.
+     * @param alpha The lower bound of the window.
+     * @param beta The upper bound of the window.
+     * @param passed true if the opponent just passed.
+     * @return The final disc difference from the point of view of the player to move, exact inside the window.
+     */
+    private int shallow(long own, long opp, long bombs, long unflippables, int ownBombs, int ownUnflippables,
+                        int oppBombs, int oppUnflippables, int alpha, int beta, boolean passed) {
+        nodes++;
+        long empty = ~(own | opp);
+        if ((empty & (empty - 1)) == 0) {
+            return empty == 0 ? Long.bitCount(own) - Long.bitCount(opp) : lastMove(own, opp, bombs, unflippables);
+        }
+        long odd = 0;
+        for (long quadrant : QUADRANTS) {
+            if ((Long.bitCount(quadrant & empty) & 1) != 0) {
+                odd |= quadrant;
+            }
+        }
+        int best = -BitBoard.SQUARES - 1;
+        for (int pass = 0; pass < 2; pass++) {
+            for (long m = empty & (pass == 0 ? odd : ~odd); m != 0; m &= m - 1) {
+                int sq = Long.numberOfTrailingZeros(m);
+                long flips = BitBoard.flips(sq, own, opp, bombs, unflippables);
+                if (flips == 0) {
+                    continue;
+                }
+                long placed = 1L << sq;
+                long nextOwn = own | flips | placed;
+                long nextOpp = opp & ~flips;
+                int lastType = typeMatters(sq, empty & ~placed, bombs) ? BoardState.BOMB : BoardState.SIMPLE;
+                for (int type = BoardState.SIMPLE; type <= lastType; type++) {
+                    int value;
+                    if (type == BoardState.SIMPLE) {
+                        value = -shallow(nextOpp, nextOwn, bombs, unflippables, oppBombs, oppUnflippables,
+                                ownBombs, ownUnflippables, -beta, -alpha, false);
+                    } else if (type == BoardState.UNFLIPPABLE && ownUnflippables > 0) {
+                        value = -shallow(nextOpp, nextOwn, bombs, unflippables | placed, oppBombs, oppUnflippables,
+                                ownBombs, ownUnflippables - 1, -beta, -alpha, false);
+                    } else if (type == BoardState.BOMB && ownBombs > 0) {
+                        value = -shallow(nextOpp, nextOwn, bombs | placed, unflippables, oppBombs, oppUnflippables,
+                                ownBombs - 1, ownUnflippables, -beta, -alpha, false);
+                    } else {
+                        continue;
+                    }
+                    if (value > best) {
+                        best = value;
+                        if (value > alpha) {
+                            alpha = value;
+                            if (alpha >= beta) {
+                                return best;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        if (best > -BitBoard.SQUARES - 1) {
+            return best;
+        }
+        if (passed) {
+            return Long.bitCount(own) - Long.bitCount(opp);  // neither player can move, the game is over
+        }
+        return -shallow(opp, own, bombs, unflippables, oppBombs, oppUnflippables, ownBombs, ownUnflippables, -beta, -alpha, true);
+    }
+
+    /**
+     * Checks if the type of a disc placed on a square can still make a difference. A disc can only be flipped
+     * by a move on its row, column or diagonals, or by a bomb next to it, and a special disc only differs from
+     * a simple one once it is flipped (or jumped over on a line a later move flips).
+     * @param sq The square of the placed disc.
+     * @param empty The empty squares after the move.
+     * @param bombs The bomb discs on the board.
+     * @return true if a later move may flip the disc, false if every disc type ends the same.
+     */
+    private static boolean typeMatters(int sq, long empty, long bombs) {
+        return (LINES[sq] & empty) != 0 || (BitBoard.neighbours(sq) & bombs) != 0;
+    }
+
+    /**
+     * Solves a position with a single empty square: the disc type placed there can't change the result.
+     * @param own The discs of the player to move.
+     * @param opp The discs of the opponent.
+     * @param bombs The bomb discs of both players.
+     * @param unflippables The unflippable discs of both players.
+     * @return The final disc difference from the point of view of the player to move.
+     */
+    private static int lastMove(long own, long opp, long bombs, long unflippables) {
+        int sq = Long.numberOfTrailingZeros(~(own | opp));
+        int diff = Long.bitCount(own) - Long.bitCount(opp);
+        long flips = BitBoard.flips(sq, own, opp, bombs, unflippables);
+        if (flips != 0) {
+            return diff + 2 * Long.bitCount(flips) + 1;
+        }
+        flips = BitBoard.flips(sq, opp, own, bombs, unflippables);
+        if (flips != 0) {
+            return diff - 2 * Long.bitCount(flips) - 1;
+        }
+        return diff;
+    }
+
+    /**
+     * Gives every generated move of a ply its ordering score. Far from the end the moves that leave the opponent
+     * the fewest replies come first; squares in a region with an odd number of empties and simple discs break ties.
+     * @param ply The ply of the moves.
+     * @param n The number of moves.
+     * @param ttMove The best move stored in the hash table, or -1.
+     */
+    private void orderMoves(int ply, int n, int ttMove) {
+        BoardState pos = stack[ply];
+        long own = pos.discs[pos.side];
+        long opp = pos.discs[pos.side ^ 1];
+        long empty = ~(own | opp);
+        boolean fastestFirst = Long.bitCount(empty) >= FASTEST_FIRST_EMPTIES;
+        int[] list = moves[ply];
+        int[] scores = orderScores[ply];
+        int lastSquare = -1;
+        int mobility = 0;
+        for (int i = 0; i < n; i++) {
+            int move = list[i];
+            if (move == ttMove) {
+                scores[i] = Integer.MAX_VALUE;
+                continue;
+            }
+            int sq = BoardState.square(move);
+            int type = BoardState.type(move);
+            long placed = 1L << sq;
+            int s = 0;
+            for (long quadrant : QUADRANTS) {
+                if ((quadrant & placed) != 0 && (Long.bitCount(quadrant & empty) & 1) != 0) {
+                    s += 2;  // the last move of an odd region is often ours
+                }
+            }
+            if (type == BoardState.SIMPLE) {
+                s += 1;  // keep the special discs for when they make a difference
+            }
+            if (fastestFirst) {
+                if (sq != lastSquare) {
+                    // the moves of one square follow each other, and its flips are the same for every disc type
+                    long flips = BitBoard.flips(sq, own, opp, pos.bombs, pos.unflippables);
+                    mobility = Long.bitCount(BitBoard.legalMoves(opp & ~flips, own | flips | placed, pos.bombs, pos.unflippables));
+                    lastSquare = sq;
+                }
+                s -= 16 * mobility;
+            }
+            scores[i] = s;
+        }
+    }
+
+    /**
+     * Selects the best scored move among the ones not tried yet and swaps it into place.
+     * @param ply The ply of the moves.
+     * @param i The index to fill.
+     * @param n The number of moves.
+     * @return The move to try next.
+     */
+    private int pickNext(int ply, int i, int n) {
+        int[] list = moves[ply];
+        int[] scores = orderScores[ply];
+        int bestIndex = i;
+        for (int j = i + 1; j < n; j++) {
+            if (scores[j] > scores[bestIndex]) {
+                bestIndex = j;
+            }
+        }
+        int move = list[bestIndex];
+        list[bestIndex] = list[i];
+        list[i] = move;
+        int s = scores[bestIndex];
+        scores[bestIndex] = scores[i];
+        scores[i] = s;
+        return move;
+    }
+
+    /**
+     * Looks up a position in the hash table.
+     * @param key The Zobrist hash of the position.
+     * @return The packed entry, or 0 if the position is not in the table.
+     */
+    private long probe(long key) {
+        int index = (int) (key & tableMask) << 1;
+        long data = table[index + 1];
+        return (table[index] ^ data) == key ? data : 0;
+    }
+
+    private int probeMove(long key) {
+        long data = probe(key);
+        return data == 0 ? -1 : move(data);
+    }
+
+    /**
+     * Stores the bounds of a position's final disc difference, replacing whatever the slot held.
+     * @param key The Zobrist hash of the position.
+     * @param move The best encoded move, or -1 if there is none.
+     * @param lower The lower bound.
+     * @param upper The upper bound.
+     */
+    private void store(long key, int move, int lower, int upper) {
+        int index = (int) (key & tableMask) << 1;
+        long data = (move < 0 ? NO_MOVE : move)
+                | (long) (lower + BitBoard.SQUARES) << 8
+                | (long) (upper + BitBoard.SQUARES) << 16
+                | 1L << 24;  // never 0, so an empty slot can't match
+        table[index] = key ^ data;
+        table[index + 1] = data;
+    }
+
+    private static int move(long data) {
+        int move = (int) (data & 0xFF);
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    private static int lower(long data) {
+        return (int) (data >>> 8 & 0xFF) - BitBoard.SQUARES;
+    }
+
+    private static int upper(long data) {
+        return (int) (data >>> 16 & 0xFF) - BitBoard.SQUARES;
+    }
+
+    /**
+     * Returns the final disc difference of the last solved position under perfect play.
+     * @return The difference from the point of view of the player who was to move.
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Returns the nodes visited by the last solve.
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the duration of the last solve.
+     * @return The time spent in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
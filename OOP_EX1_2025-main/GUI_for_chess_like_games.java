@@ -2,7 +2,11 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
-import java.util.List;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * IMPORTANT:
@@ -10,8 +14,7 @@ import java.util.List;
  */
 public class GUI_for_chess_like_games extends JFrame {
     private static final int BUTTON_SIZE = 55;
-    private static final int FONT_SIZE = 20;
-    private final JButton[][] buttons;
+    private final BoardCanvas board;  // draws the cells and reports the clicked ones
     private final int BOARD_SIZE;
     private PlayableLogic gameLogic;
     private final JLabel turnLabel = new JLabel("Player 1's Turn");
@@ -21,40 +24,33 @@ public class GUI_for_chess_like_games extends JFrame {
     private boolean isAITurn = false; // New flag to track AI turn
     private boolean bombKeyPressed = false;  // To track if 'b' key is pressed
     private boolean unflippedKeyPressed = false;  // To track if 'v' key is pressed
-    private final JSlider aiSpeedSlider = new JSlider(JSlider.VERTICAL, 0, 2000, 1000);; // Slider to control AI response speed
+    private final JSlider aiSpeedSlider = new JSlider(JSlider.VERTICAL, 0, 2000, 1000);; // The least time in ms between AI moves, however fast the AI answers
     private boolean showColor = true;
     private boolean showNumbers = true;
     private final JCheckBox numbersCheckBox = new JCheckBox(new AbstractAction() {
         @Override
         public void actionPerformed(ActionEvent e) {
             showNumbers = !showNumbers;
-
+            board.setShowNumbers(showNumbers);
             updateBoard();
         }
     });
 
-    Timer timer = new Timer(aiSpeedSlider.getValue(), e -> {
-        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-        // If it's an AI player's turn
-        if (!currentPlayer.isHuman()) {
-
-            Move aiMove = ((AIPlayer) currentPlayer).makeMove(gameLogic);
-            preform_move(aiMove.position(), aiMove.disc());
-
-            // Update the current player after the move
-            currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-            // If the next player is human, stop the timer
-            if (currentPlayer.isHuman()) {
-                ((Timer) e.getSource()).stop();  // Stop the timer
-                isAITurn = false;  // Reset AI flag
-            }
-            updateBoard();
-        }
-        ((Timer) e.getSource()).setInitialDelay(aiSpeedSlider.getValue());
-        ((Timer) e.getSource()).restart();
+    // the AI players think on this thread, on a fork of the game, so the window stays responsive while they search
+    private final ExecutorService aiThinker = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "ai-thinker");
+        thread.setDaemon(true);
+        return thread;
     });
+    private Future<?> thinking;  // the search of the AI move, null when no AI is thinking
+    private AIPlayer thinker;  // the AI player that is thinking
+    private volatile int aiGeneration;  // increased by every cancel, so the moves of cancelled searches are dropped
+    private Move pendingMove;  // the AI move that is found and waits for the display delay
+    private Future<?> pondering;  // the AI thinking on the human's time, null when no AI is pondering
+    private AIPlayer ponderer;  // the AI player that is pondering
+
+    // plays the pending AI move once the slider's delay has passed since the AI started thinking
+    Timer timer = new Timer(0, e -> playAIMove());
 
     /**
      * Initializes the graphical user interface for the Chess like Games.
@@ -80,15 +76,15 @@ public class GUI_for_chess_like_games extends JFrame {
         aiSpeedSlider.setPaintTicks(true);
         aiSpeedSlider.setPaintLabels(true);
 
-        // The timer will repeat every second
-        timer.setRepeats(true);
+        // The timer plays one AI move at a time
+        timer.setRepeats(false);
 
         // Create a panel with BoxLayout (Y_AXIS) to arrange components vertically
         JPanel sliderPanel = new JPanel();
         sliderPanel.setLayout(new BoxLayout(sliderPanel, BoxLayout.Y_AXIS));
 
         // Create a label for the slider
-        JLabel sliderLabel = new JLabel("AI Speed:");
+        JLabel sliderLabel = new JLabel("AI Delay:");
 
         // Create a label for the color checkbox
         JLabel colorLabel = new JLabel("Show Color:");
@@ -132,7 +128,9 @@ public class GUI_for_chess_like_games extends JFrame {
         // An action listener to the back button
         backButton.addActionListener(e -> {
             // implementation of the "Back Button"
+            cancelAITurn();
             gameLogic.undoLastMove();
+            startAITurn();
             updateBoard();
         });
 
@@ -154,8 +152,7 @@ public class GUI_for_chess_like_games extends JFrame {
         topPanel.add(turnLabel, BorderLayout.CENTER);
         topPanel.add(rightLabelPanel, BorderLayout.EAST);
         add(topPanel, BorderLayout.NORTH);
-        mainPanel.setLayout(new GridLayout(BOARD_SIZE, BOARD_SIZE));
-        buttons = new JButton[BOARD_SIZE][BOARD_SIZE];
+        board = new BoardCanvas(gameLogic, BUTTON_SIZE, this::ButtonListener);
 
         // Adding the reset button to the bottom of the main panel
         JButton resetButton = new JButton("Reset");
@@ -165,6 +162,15 @@ public class GUI_for_chess_like_games extends JFrame {
         resetButton.addActionListener(e -> {
             resetGame();
         });
+
+        // Stop a search in progress when the window closes
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                cancelAITurn();
+                aiThinker.shutdownNow();
+            }
+        });
         start();
     }
     // Set up key bindings for 'b' and 'v' keys
@@ -230,25 +236,157 @@ public class GUI_for_chess_like_games extends JFrame {
                     return;
             }
         }
-        currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-        if (!currentPlayer.isHuman())
-            isAITurn = true;
 
-        // Start the AI turn with a delay
+        // Let the AI think if it is its turn now
+        startAITurn();
         updateBoard();
-        timer.setInitialDelay(aiSpeedSlider.getValue());
+    }
+
+    /**
+     * Starts the search for the AI's move if it is an AI player's turn.
+     * The AI searches a fork of the game on the thinker thread, and the move it finds is played on the
+     * event dispatch thread once the slider's delay has passed since the search started.
+     */
+    private void startAITurn() {
+        cancelAITurn();
+        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
+        if (currentPlayer.isHuman() || gameLogic.status().isGameOver()) {
+            isAITurn = false;
+            startPondering();
+            return;
+        }
+        isAITurn = true;
+        AIPlayer ai = (AIPlayer) currentPlayer;
+        int generation = aiGeneration;
+        long start = System.nanoTime();
+        PlayableLogic snapshot = gameLogic.fork();
+        thinker = ai;
+        thinking = aiThinker.submit(() -> {
+            // cancelAITurn changes the generation before it stops the AI, so after resuming either the
+            // generation shows the cancel or a stop that comes later reaches the search
+            ai.resumeThinking();
+            if (generation != aiGeneration) {
+                return;  // cancelled before it started
+            }
+            Move move;
+            try {
+                move = ai.makeMove(snapshot);
+            } catch (RuntimeException e) {
+                SwingUtilities.invokeLater(() -> aiMoveFailed(generation, e));
+                return;
+            }
+            SwingUtilities.invokeLater(() -> aiMoveFound(generation, move, start));
+        });
+    }
 
-        // Restart the timer to trigger AI moves
+    /**
+     * Lets the AI think on the human's time, if a human is to move against an AI.
+     * The AI ponders a fork of the game on the thinker thread until its own turn cancels it,
+     * so its search for the move that follows starts from what it found.
+     */
+    private void startPondering() {
+        Player opponent = gameLogic.isFirstPlayerTurn() ? gameLogic.getSecondPlayer() : gameLogic.getFirstPlayer();
+        if (opponent.isHuman() || gameLogic.status().isGameOver()) {
+            return;
+        }
+        PlayableLogic snapshot = gameLogic.fork();
+        AIPlayer ai = (AIPlayer) opponent;
+        int generation = aiGeneration;
+        ponderer = ai;
+        pondering = aiThinker.submit(() -> {
+            ai.resumeThinking();  // in this order for the same reason as in startAITurn
+            if (generation != aiGeneration) {
+                return;  // cancelled before it started
+            }
+            try {
+                ai.ponder(snapshot);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Receives the move of an AI search and schedules it for the end of the display delay.
+     * @param generation The aiGeneration the search started in, the move is dropped if it was cancelled since.
+     * @param move The move found.
+     * @param start The System.nanoTime() when the search started.
+     */
+    private void aiMoveFound(int generation, Move move, long start) {
+        if (generation != aiGeneration) {
+            return;
+        }
+        thinking = null;
+        thinker = null;
+        pendingMove = move;
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        timer.setInitialDelay((int) Math.max(0, aiSpeedSlider.getValue() - elapsedMillis));
         timer.restart();
     }
 
+    /**
+     * Receives the failure of an AI search and reports it. The turn stays the AI's, but the board takes clicks again,
+     * and the next click lets the AI try again.
+     * @param generation The aiGeneration the search started in, the failure is dropped if it was cancelled since.
+     * @param error What the AI threw.
+     */
+    private void aiMoveFailed(int generation, RuntimeException error) {
+        if (generation != aiGeneration) {
+            return;
+        }
+        thinking = null;
+        thinker = null;
+        isAITurn = false;
+        error.printStackTrace();
+        JOptionPane.showMessageDialog(this, "The AI failed to find a move: " + error + "\nClick the board to let it try again.",
+                "AI error", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Plays the pending AI move and lets the next AI think, if it is an AI's turn again.
+     */
+    private void playAIMove() {
+        Move move = pendingMove;
+        pendingMove = null;
+        if (move == null) {
+            return;
+        }
+        if (!preform_move(move.position(), move.disc())) {
+            throw new IllegalStateException(move.disc().getOwner().getClass().getSimpleName() + " made an illegal move");
+        }
+        startAITurn();
+        updateBoard();
+    }
+
+    /**
+     * Cancels the AI move in progress: stops its search and drops its move, even if it is already found.
+     * Stops the pondering too.
+     */
+    private void cancelAITurn() {
+        aiGeneration++;
+        timer.stop();
+        pendingMove = null;
+        if (thinking != null) {
+            thinking.cancel(false);  // the search is stopped through its own flag, not by interrupting it
+            thinker.stopThinking();
+            thinking = null;
+            thinker = null;
+        }
+        if (pondering != null) {
+            pondering.cancel(false);
+            ponderer.stopPondering();
+            pondering = null;
+            ponderer = null;
+        }
+    }
+
     // Return true only if preformed the move
     private boolean preform_move(Position move, Disc disc) {
         if (gameLogic.locate_disc(move, disc)) {
             // Check for victory after a move
-            if (gameLogic.isGameFinished()) {
-                resetGame();
+            if (gameLogic.status().isGameOver()) {
+                gameLogic.recordResult();
+                gameLogic.reset();  // the caller starts the next turn, as after any move
             }
         }
         else
@@ -258,9 +396,8 @@ public class GUI_for_chess_like_games extends JFrame {
 
     /**
      * Updates the game board UI to reflect the current state of the game.
-     * It updates the turn label, the button text, and the text color based on the current game state.
-     * For each cell on the board, the button's appearance and text will be updated to match the corresponding
-     * piece's position and type. The text color is determined by the piece's owner.
+     * It updates the turn label and repaints the cells whose disc or hint changed since the last update,
+     * which after a move are the placed disc, the flipped discs and the squares whose hint changed.
      *
      * @see #updateWinsLabels(int, int)
      */
@@ -274,128 +411,23 @@ public class GUI_for_chess_like_games extends JFrame {
             turnLabel.setText("Player 1's Turn");
         }
 
-        for (int col = 0; col < BOARD_SIZE; col++) {
-            for (int row = 0; row < BOARD_SIZE; row++) {
-                // Set alternating background colors for a chessboard pattern
-                if ((row + col) % 2 != 0) {
-                    buttons[row][col].setBackground(new Color(0, 0, 0));
-                } else {
-                    buttons[row][col].setBackground(Color.WHITE);
-                }
-            }
-        }
-
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                Disc disc = gameLogic.getDiscAtPosition(new Position(row, col));
-                if (disc != null) {
-                    // Update the button's appearance based on the new piece position
-                    String type = disc.getType();
-                    buttons[row][col].setText(type);
-                    if ((disc.getOwner().isPlayerOne())) {
-                        buttons[row][col].setForeground(Color.BLUE);
-                    } else {
-                        buttons[row][col].setForeground(new Color(255, 0, 0));
-                    }
-                } else {
-                    buttons[row][col].setText("");
-                }
-            }
-        }
-
-        if (!isAITurn && showColor)
-            enhanceColor();
+        board.refresh(!isAITurn && showColor);
 
         updateWinsLabels(gameLogic.getSecondPlayer().getWins(), gameLogic.getFirstPlayer().getWins());
     }
 
-    private void enhanceColor() {
-        List<Position> possiblePositions = this.gameLogic.ValidMoves();
-        for (Position p : possiblePositions) {
-            JButton button = buttons[p.row()][p.col()];
-            Color currentColor = button.getBackground();
-
-            // Determine if the current color is closer to white or black
-            int brightness = (currentColor.getRed() + currentColor.getGreen() + currentColor.getBlue()) / 3;
-
-            Color enhancedColor;
-            if (brightness > 128) {
-                // For lighter colors (closer to white)
-                enhancedColor = new Color(199, 255, 199);  // Light green
-            } else {
-                // For darker colors (closer to black)
-                enhancedColor = new Color(0, 100, 0);  // Dark green
-            }
-
-            button.setBackground(enhancedColor);
-            if (showNumbers) {
-                int num = gameLogic.countFlips(p);
-                button.setForeground(Color.black);
-                button.setText(String.valueOf(num));
-            }
-        }
-    }
-
-
     private void updateWinsLabels(int attackerWins, int defenderWins) {
         playerTowWinsLabel.setText("Player 2 Wins: " + attackerWins);
         playerOneWinsLabel.setText("Player 1 Wins: " + defenderWins);
     }
 
     /**
-     * Initializes and displays the game board with buttons for interactions.
-     * Sets up button appearance, colors, and interactions with user input.
-     * Highlights selected pieces and manages their movement based on user actions.
+     * Initializes and displays the game board.
+     * The board canvas draws the discs and hints and passes the clicked cells to the button listener.
      */
     public void start() {
-        // Your game logic to handle user interactions and updates
-        for (int row = 0; row < BOARD_SIZE; row++) {
-            for (int col = 0; col < BOARD_SIZE; col++) {
-                buttons[row][col] = new JButton();
-                buttons[row][col].setPreferredSize(new Dimension(BUTTON_SIZE, BUTTON_SIZE)); // Adjust size as needed
-                Font chessFont = new Font("DejaVu Sans", Font.PLAIN, FONT_SIZE);
-                buttons[row][col].setFont(chessFont);
-
-                // Set alternating background colors for a chessboard pattern
-                if ((row + col) % 2 != 0) {
-                    buttons[row][col].setBackground(new Color(0, 0, 0));
-                }
-                else  {
-                    buttons[row][col].setBackground(Color.WHITE);
-                }
-
-                // Clear default border and content area
-                buttons[row][col].setBorderPainted(false);
-
-                if (gameLogic.getDiscAtPosition(new Position(row, col)) != null) {
-                    // Set the button's appearance based on the piece type
-                    Disc disc = gameLogic.getDiscAtPosition(new Position(row, col));
-                    String type = disc.getType();
-                    buttons[row][col].setText(type);
-                    if ((disc.getOwner().isPlayerOne())) {
-                        buttons[row][col].setForeground(Color.BLUE);
-                    } else {
-                        buttons[row][col].setForeground(new Color(255, 0, 0));
-                    }
-                }
-
-                mainPanel.add(buttons[row][col]);
-                buttons[row][col].putClientProperty("row", row); // Store the row index
-                buttons[row][col].putClientProperty("col", col); // Store the column index
-                buttons[row][col].addActionListener((e) -> {
-                    JButton clickedButton = (JButton) e.getSource();
-
-                    int rowIndex = (int) clickedButton.getClientProperty("row");
-                    int colIndex = (int) clickedButton.getClientProperty("col");
-                    Position newPosition = new Position(rowIndex, colIndex);
-
-                    ButtonListener(newPosition);  // Use the updated logic
-                });
-
-            }
-        }
-        if (!isAITurn && showColor)
-            enhanceColor();
+        board.refresh(!isAITurn && showColor);
+        mainPanel.add(board, BorderLayout.CENTER);
         // Add the main panel to the frame
         getContentPane().add(mainPanel);
 
@@ -404,12 +436,9 @@ public class GUI_for_chess_like_games extends JFrame {
         setVisible(true);
     }
     public void resetGame() {
+        cancelAITurn();
         gameLogic.reset();
-        Player currentPlayer = gameLogic.isFirstPlayerTurn() ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
-
-        if (!currentPlayer.isHuman()) {
-            ButtonListener(new Position(0, 0));
-        }
+        startAITurn();
         // Reset UI elements
         updateBoard();
         turnLabel.setText("Player 1's Turn");
@@ -0,0 +1,350 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Aggregate statistics over a GameRecord file: game lengths, results, the most played openings, the average mobility
+ * at every ply, and how often each disc type is played and how the players who play it fare.
+ * The file is indexed once into chunks of consecutive games, then a fork/join task splits the chunks in halves until
+ * a handful are left. Every leaf replays its own region of the file through a GameLogic with its own Reader and its
+ * own Stats, and the Stats of both halves are merged when they join, so no two threads ever share an accumulator.
+ * Usage: java GameAnalytics <file> [threads]
+ */
+public class GameAnalytics {
+    private static final int CHUNK_GAMES = 4096;  // games between two offsets of the index
+    private static final int LEAF_CHUNKS = 4;  // a task with this few chunks replays them instead of splitting
+    private static final int OPENING_PLIES = 4;  // the plies that make up an opening
+    private static final int TOP_OPENINGS = 10;  // the openings printed
+    private static final String[] TYPE_NAMES = {"simple", "unflippable", "bomb"};
+
+    private GameAnalytics() {
+    }
+
+    /**
+     * Replays every game of a record file and gathers the statistics.
+     * @param file The record file.
+     * @param threads The number of threads replaying games.
+     * @return The statistics of all games.
+     * @throws IOException If the file can't be read.
+     */
+    public static Stats analyze(Path file, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        // the offset of every CHUNK_GAMES-th game, found by hopping over the games without reading their plies
+        List<Long> offsets = new ArrayList<>();
+        int size;
+        long games;
+        try (GameRecord.Reader reader = new GameRecord.Reader(file)) {
+            size = reader.boardSize();
+            games = reader.games();
+            for (long game = 0; game < games; game++) {
+                if (game % CHUNK_GAMES == 0) {
+                    offsets.add(reader.nextOffset());
+                }
+                reader.next();
+            }
+        }
+        long[] chunks = new long[offsets.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = offsets.get(i);
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            return pool.invoke(new Region(file, size, games, chunks, 0, chunks.length));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * A run of consecutive chunks of the file, split in halves until it is small enough to replay.
+     */
+    private static final class Region extends RecursiveTask<Stats> {
+        private final Path file;
+        private final int size;
+        private final long games;  // in the whole file
+        private final long[] chunks;  // the file offset of every chunk
+        private final int from;  // the first chunk
+        private final int to;  // after the last chunk
+
+        Region(Path file, int size, long games, long[] chunks, int from, int to) {
+            this.file = file;
+            this.size = size;
+            this.games = games;
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from <= LEAF_CHUNKS) {
+                try {
+                    return replay();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Error reading " + file, e);
+                }
+            }
+            int mid = (from + to) >>> 1;
+            Region left = new Region(file, size, games, chunks, from, mid);
+            left.fork();
+            Stats stats = new Region(file, size, games, chunks, mid, to).compute();
+            stats.merge(left.join());
+            return stats;
+        }
+
+        /**
+         * Replays the games of the region on a GameLogic of its own.
+         * The discs and positions are created once, so the replay allocates little besides the game statuses.
+         * @return The statistics of the region.
+         * @throws IOException If the file can't be read.
+         */
+        private Stats replay() throws IOException {
+            Stats stats = new Stats(size);
+            GameLogic gameLogic = new GameLogic(size);
+            Player first = new HumanPlayer(true);
+            Player second = new HumanPlayer(false);
+            gameLogic.setPlayers(first, second);
+            Disc[][] discs = {
+                    {new SimpleDisc(first), new UnflippableDisc(first), new BombDisc(first)},
+                    {new SimpleDisc(second), new UnflippableDisc(second), new BombDisc(second)}};
+            Position[] positions = new Position[size * size];
+            for (int sq = 0; sq < positions.length; sq++) {
+                positions[sq] = new Position(sq / size, sq % size);
+            }
+            int pass = GameRecord.pass(size);
+            int[] moverTypes = new int[2 * size * size];  // the disc type and mover of every ply of the current game
+            int[] specials = new int[2];  // special discs each player placed in the current game
+            try (GameRecord.Reader reader = new GameRecord.Reader(file)) {
+                long game = (long) from * CHUNK_GAMES;
+                long end = Math.min(games, (long) to * CHUNK_GAMES);
+                reader.seek(chunks[from], game);
+                for (; game < end && reader.next(); game++) {
+                    gameLogic.reset();
+                    int plies = reader.plies();
+                    int moves = 0;
+                    long opening = 0;
+                    for (int i = 0; i < plies; i++) {
+                        int ply = reader.ply(i);
+                        if (i < OPENING_PLIES) {
+                            opening = opening << 16 | ply;
+                        }
+                        if (ply == pass) {
+                            stats.passes++;
+                            moverTypes[i] = -1;
+                            continue;
+                        }
+                        int mover = gameLogic.isFirstPlayerTurn() ? 0 : 1;
+                        int type = GameRecord.type(size, ply);
+                        stats.mobilitySum[moves] += gameLogic.status().moverMobility();
+                        stats.mobilityCount[moves]++;
+                        if (!gameLogic.doMove(positions[GameRecord.square(size, ply)], discs[mover][type])) {
+                            throw new IllegalStateException("Ply " + i + " of game " + game + " is not a valid move");
+                        }
+                        moverTypes[i] = mover << 2 | type;
+                        moves++;
+                    }
+                    GameStatus status = gameLogic.status();
+                    int margin = status.firstDiscs() - status.secondDiscs();
+                    int firstPoints = margin > 0 ? 2 : margin == 0 ? 1 : 0;  // half points, to stay in integers
+                    specials[0] = 0;
+                    specials[1] = 0;
+                    for (int i = 0; i < plies; i++) {
+                        if (moverTypes[i] >= 0) {
+                            int mover = moverTypes[i] >>> 2;
+                            int type = moverTypes[i] & 3;
+                            stats.typePlays[type]++;
+                            stats.typeHalfPoints[type] += mover == 0 ? firstPoints : 2 - firstPoints;
+                            if (type != BoardState.SIMPLE) {
+                                specials[mover]++;
+                            }
+                        }
+                    }
+                    if (specials[0] != specials[1]) {
+                        stats.moreSpecialsGames++;
+                        stats.moreSpecialsHalfPoints += specials[0] > specials[1] ? firstPoints : 2 - firstPoints;
+                    }
+                    stats.games++;
+                    stats.plies += plies;
+                    stats.lengths[moves]++;
+                    stats.results[firstPoints]++;
+                    if (plies >= OPENING_PLIES) {
+                        stats.openings.merge(opening, 1L, Long::sum);
+                    }
+                }
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * The statistics of some games, owned by one task until it is merged into its parent's.
+     */
+    public static final class Stats {
+        private final int size;
+        private long games;
+        private long plies;  // passes included
+        private long passes;
+        private final long[] lengths;  // games by their number of moves
+        private final long[] results;  // games lost, drawn and won by player 1
+        private final long[] mobilitySum;  // valid squares of the player to move, by move number
+        private final long[] mobilityCount;  // moves played at every move number
+        private final long[] typePlays = new long[3];  // moves by disc type
+        private final long[] typeHalfPoints = new long[3];  // final half points of the movers, by disc type
+        private long moreSpecialsGames;  // games where one player placed more special discs than the other
+        private long moreSpecialsHalfPoints;  // final half points of that player
+        private final Map<Long, Long> openings = new HashMap<>();  // games by their first plies, 16 bits per ply
+
+        Stats(int size) {
+            this.size = size;
+            lengths = new long[size * size + 1];
+            results = new long[3];
+            mobilitySum = new long[size * size];
+            mobilityCount = new long[size * size];
+        }
+
+        /**
+         * Adds the statistics of other games to these.
+         * @param other The statistics of a task that has finished.
+         */
+        void merge(Stats other) {
+            games += other.games;
+            plies += other.plies;
+            passes += other.passes;
+            add(lengths, other.lengths);
+            add(results, other.results);
+            add(mobilitySum, other.mobilitySum);
+            add(mobilityCount, other.mobilityCount);
+            add(typePlays, other.typePlays);
+            add(typeHalfPoints, other.typeHalfPoints);
+            moreSpecialsGames += other.moreSpecialsGames;
+            moreSpecialsHalfPoints += other.moreSpecialsHalfPoints;
+            other.openings.forEach((opening, count) -> openings.merge(opening, count, Long::sum));
+        }
+
+        private static void add(long[] into, long[] from) {
+            for (int i = 0; i < into.length; i++) {
+                into[i] += from[i];
+            }
+        }
+
+        /**
+         * Returns the number of games replayed.
+         * @return The game count.
+         */
+        public long getGames() {
+            return games;
+        }
+
+        /**
+         * Returns the number of plies replayed.
+         * @return The ply count, passes included.
+         */
+        public long getPlies() {
+            return plies;
+        }
+
+        /**
+         * Prints a report of the statistics.
+         * @param out Where to print the report.
+         */
+        public void print(PrintStream out) {
+            out.printf("%d games on %dx%d boards, %d plies, %d passes%n", games, size, size, plies, passes);
+            if (games == 0) {
+                return;
+            }
+            out.printf("results: player 1 wins %.1f%%, draws %.1f%%, player 2 wins %.1f%%%n",
+                    100.0 * results[2] / games, 100.0 * results[1] / games, 100.0 * results[0] / games);
+            int shortest = 0;
+            while (lengths[shortest] == 0) {
+                shortest++;
+            }
+            int longest = lengths.length - 1;
+            while (lengths[longest] == 0) {
+                longest--;
+            }
+            int median = shortest;
+            for (long seen = lengths[median]; seen * 2 < games; seen += lengths[median]) {
+                median++;
+            }
+            out.printf("game length: %d to %d moves, median %d, average %.1f%n", shortest, longest, median, (double) (plies - passes) / games);
+            out.println("average mobility by move number:");
+            StringBuilder line = new StringBuilder();
+            for (int move = 0; move < mobilityCount.length && mobilityCount[move] > 0; move++) {
+                if (move % 10 == 0) {
+                    line.append(String.format("  %3d:", move));
+                }
+                line.append(String.format(" %5.1f", (double) mobilitySum[move] / mobilityCount[move]));
+                if (move % 10 == 9) {
+                    out.println(line);
+                    line.setLength(0);
+                }
+            }
+            if (line.length() > 0) {
+                out.println(line);
+            }
+            for (int type = 0; type < typePlays.length; type++) {
+                out.printf("%s discs: %d plays (%.2f per game), mover's score %.1f%%%n", TYPE_NAMES[type], typePlays[type],
+                        (double) typePlays[type] / games, typePlays[type] == 0 ? 0 : 50.0 * typeHalfPoints[type] / typePlays[type]);
+            }
+            if (moreSpecialsGames > 0) {
+                out.printf("the player placing more special discs scores %.1f%% (%d games)%n",
+                        50.0 * moreSpecialsHalfPoints / moreSpecialsGames, moreSpecialsGames);
+            }
+            out.printf("most played openings (first %d plies) of %d:%n", OPENING_PLIES, openings.size());
+            openings.entrySet().stream()
+                    .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                    .limit(TOP_OPENINGS)
+                    .forEach(e -> out.printf("  %-40s %6.2f%%%n", opening(e.getKey()), 100.0 * e.getValue() / games));
+        }
+
+        /**
+         * Formats an opening as its moves: row and column, with U for unflippable and B for bomb discs.
+         * @param opening The plies, 16 bits each, the first ply highest.
+         * @return The moves.
+         */
+        private String opening(long opening) {
+            StringBuilder text = new StringBuilder();
+            int pass = GameRecord.pass(size);
+            for (int i = OPENING_PLIES - 1; i >= 0; i--) {
+                int ply = (int) (opening >>> 16 * i & 0xFFFF);
+                if (text.length() > 0) {
+                    text.append(' ');
+                }
+                if (ply == pass) {
+                    text.append("pass");
+                } else {
+                    int sq = GameRecord.square(size, ply);
+                    text.append('(').append(sq / size).append(',').append(sq % size).append(')');
+                    text.append(GameRecord.type(size, ply) == BoardState.BOMB ? "B" : GameRecord.type(size, ply) == BoardState.UNFLIPPABLE ? "U" : "");
+                }
+            }
+            return text.toString();
+        }
+    }
+
+    /**
+     * Analyzes a record file from the command line.
+     * Usage: java GameAnalytics <file> [threads]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GameAnalytics <file> [threads]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long start = System.nanoTime();
+        Stats stats = analyze(Path.of(args[0]), threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        stats.print(System.out);
+        System.out.printf("%.2fs on %d threads, %.1fM plies per minute%n", seconds, threads, stats.getPlies() * 60 / seconds / 1e6);
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Receives the events of a game as they happen: placed and flipped discs, passes, undone moves and the end of the game.
+ * Every method does nothing by default, so a listener only overrides the events it cares about.
+ * The arguments are plain values, and the game skips the events entirely while no listener is set,
+ * so a game that nobody listens to does no reporting work at all.
+ * Disc types are the strings returned by Disc.getType(): "⬤", "⭕" or "💣".
+ */
+public interface GameEventListener {
+    /**
+     * The listener that ignores every event, used when nobody listens.
+     */
+    GameEventListener NONE = new GameEventListener() {
+    };
+
+    /**
+     * A disc was placed.
+     * @param player The player who placed it (1 or 2).
+     * @param type The type of the placed disc.
+     * @param row The row of the disc.
+     * @param col The column of the disc.
+     */
+    default void discPlaced(int player, String type, int row, int col) {
+    }
+
+    /**
+     * A disc was flipped by the move that was just placed.
+     * @param player The player who now owns the disc (1 or 2).
+     * @param type The type of the flipped disc.
+     * @param row The row of the disc.
+     * @param col The column of the disc.
+     */
+    default void discFlipped(int player, String type, int row, int col) {
+    }
+
+    /**
+     * The player whose turn it was has no valid move, so the other player plays again.
+     * @param player The player who passes (1 or 2).
+     */
+    default void turnPassed(int player) {
+    }
+
+    /**
+     * All the events of a move were reported.
+     */
+    default void moveFinished() {
+    }
+
+    /**
+     * A move is about to be undone.
+     */
+    default void undoStarted() {
+    }
+
+    /**
+     * The disc placed by the undone move was removed.
+     * @param type The type of the removed disc.
+     * @param row The row of the disc.
+     * @param col The column of the disc.
+     */
+    default void discRemoved(String type, int row, int col) {
+    }
+
+    /**
+     * A disc flipped by the undone move was flipped back.
+     * @param type The type of the disc.
+     * @param row The row of the disc.
+     * @param col The column of the disc.
+     */
+    default void discFlippedBack(String type, int row, int col) {
+    }
+
+    /**
+     * All the events of an undone move were reported.
+     */
+    default void undoFinished() {
+    }
+
+    /**
+     * An undo was asked for but there is no move to undo, or one of the players is an AI.
+     */
+    default void undoRejected() {
+    }
+
+    /**
+     * The game ended.
+     * @param winner The winning player (1 or 2), or 0 for a draw.
+     * @param firstDiscs The disc count of player 1.
+     * @param secondDiscs The disc count of player 2.
+     */
+    default void gameOver(int winner, int firstDiscs, int secondDiscs) {
+    }
+}
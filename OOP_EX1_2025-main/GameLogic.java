@@ -1,35 +1,149 @@
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
 
 public class GameLogic implements PlayableLogic {
-    private final Disc[][] reversiBoard;  // game board
+    private static final int[] INDEX_R = {-1, +1, -1, 1, 1, 0, 0, -1};  // row step of the 8 directions
+    private static final int[] INDEX_C = {-1, +1, 1, -1, 0, 1, -1, 0};  // column step of the 8 directions
+    private final int size;  // the board is size x size
+    private final int words;  // 64-bit words per plane
+    private final long[] onBoard;  // the bits of a plane that are squares - all but the tail of the last word
+    private final long[] notFirstColumn;  // the squares outside column 0, where a step to the right cannot wrap to
+    private final long[] notLastColumn;  // the squares outside the last column, where a step to the left cannot wrap to
+    // game board - one bit per square, square row * size + col is bit (square & 63) of word (square >>> 6)
+    private final long[] firstDiscs;  // squares owned by player 1
+    private final long[] secondDiscs;  // squares owned by player 2
+    private final long[] bombs;  // squares holding a bomb disc (of either player)
+    private final long[] unflippables;  // squares holding an unflippable disc (of either player)
+    private final long[] empties;  // scratch plane of the empty squares
+    private long[] frontier;  // scratch plane of the far end of the runs being grown by the move generation
+    private long[] next;  // scratch plane the frontier is grown into
+    private final long[] candidates;  // scratch plane of the squares that close a line
+    private final long[] flipped;  // scratch plane of the squares a bomb chain has flipped so far
+    private final long[] blast;  // scratch plane of the bombs that went off in the last ring of a bomb chain
     private Player player1;
     private Player player2;
     private Player playerNow;  // the current player whose turn it is
     private boolean whoPlayer;  // a flag to keep track of which of the two players is the current player
-    private final Stack<Position> posStack;  // keeps track of the current discs that are placed - used in the Undo method
-    private final Stack<List<Move>> movesStack;  // keeps track of all the discs that were flipped - used in the Undo method
+    // undo journal - for every move its flipped squares, then its placed square, its flip count and whether the next player passed
+    private int[] journal;
+    private int journalTop;  // the number of journal entries in use
+    private GameEventListener listener;  // receives the placements, flips, undos and results
+    private int[] flipBuffer;  // scratch squares used when collecting flips, grown to the most flips seen so counting does not allocate
+    private List<Position> validMoves;  // cached valid moves of the current player, null after the board changed
+    private int[] moveSquares;  // cached squares (row * size + col) of the valid moves, in the same order
+    private int[] moveFlips;  // cached flip count of each of the valid moves, in the same order
+    private int moverMobility;  // cached number of valid squares of the player to move, -1 after the board changed
+    private int opponentMobility;  // cached number of valid squares of the other player, -1 after the board changed
 
     /**
      * Constructor for the GameLogic class.
-     * initializes the game board, player turn flag, and the stacks for moves and positions.
+     * initializes an 8x8 game board, player turn flag, and the undo journal.
      */
     public GameLogic() {
-        reversiBoard = new Disc[8][8]; // Initializes the 8x8 game board
+        this(8);
+    }
+
+    /**
+     * Constructor for the GameLogic class with a board of any even size.
+     * The board is kept as bit planes of 64-bit words holding the rows one after the other,
+     * so a game takes about size * size / 6 words whatever the size.
+     * @param size The number of rows and columns, even and at least 4.
+     */
+    public GameLogic(int size) {
+        if (size < 4 || size % 2 != 0) {
+            throw new IllegalArgumentException("Board size must be even and at least 4: " + size);
+        }
+        this.size = size;
+        words = (size * size + 63) >>> 6;
+        onBoard = new long[words];
+        notFirstColumn = new long[words];
+        notLastColumn = new long[words];
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                set(onBoard, r, c);
+                if (c != 0) {
+                    set(notFirstColumn, r, c);
+                }
+                if (c != size - 1) {
+                    set(notLastColumn, r, c);
+                }
+            }
+        }
+        firstDiscs = new long[words];
+        secondDiscs = new long[words];
+        bombs = new long[words];
+        unflippables = new long[words];
+        empties = new long[words];
+        frontier = new long[words];
+        next = new long[words];
+        candidates = new long[words];
+        flipped = new long[words];
+        blast = new long[words];
         whoPlayer = true; // Player 1 starts
-        posStack = new Stack<>(); // Stack to store positions for undo functionality
-        movesStack = new Stack<>(); // Stack to store moves for undo functionality
+        flipBuffer = new int[8 * size];
+        journal = new int[64 * size];  // grows with the game
+        listener = GameEventListener.NONE;
+    }
+
+    /**
+     * Constructor for a fork: copies the board, turn, special discs and undo journal of another game.
+     * The column masks never change, so they are shared; the scratch planes are the fork's own.
+     * @param other The game to copy.
+     */
+    private GameLogic(GameLogic other) {
+        size = other.size;
+        words = other.words;
+        onBoard = other.onBoard;
+        notFirstColumn = other.notFirstColumn;
+        notLastColumn = other.notLastColumn;
+        firstDiscs = other.firstDiscs.clone();
+        secondDiscs = other.secondDiscs.clone();
+        bombs = other.bombs.clone();
+        unflippables = other.unflippables.clone();
+        empties = new long[words];
+        frontier = new long[words];
+        next = new long[words];
+        candidates = new long[words];
+        flipped = new long[words];
+        blast = new long[words];
+        player1 = other.player1 == null ? null : other.player1.fork();
+        player2 = other.player2 == null ? null : other.player2.fork();
+        whoPlayer = other.whoPlayer;
+        playerNow = whoPlayer ? player1 : player2;
+        flipBuffer = new int[other.flipBuffer.length];
+        journal = Arrays.copyOf(other.journal, other.journal.length);
+        journalTop = other.journalTop;
+        listener = GameEventListener.NONE;
+        // the caches are replaced when the board changes, never changed in place
+        validMoves = other.validMoves;
+        moveSquares = other.moveSquares;
+        moveFlips = other.moveFlips;
+        moverMobility = other.moverMobility;
+        opponentMobility = other.opponentMobility;
+    }
+
+    /**
+     * Creates an independent copy of the game that can be played on with doMove and undoMove, or locate_disc,
+     * without changing this game. The board holds no Disc objects, so nothing mutable is shared.
+     * @return The copy, with stand-in players and no event listener.
+     */
+    @Override
+    public GameLogic fork() {
+        return new GameLogic(this);
     }
 
     /**
      * Starts a new game by setting up the initial positions on the board - giving each player two discs at the center of the board.
      */
     public void startGame() {
-        reversiBoard[3][3] = new SimpleDisc(player1);
-        reversiBoard[4][4] = new SimpleDisc(player1);
-        reversiBoard[3][4] = new SimpleDisc(player2);
-        reversiBoard[4][3] = new SimpleDisc(player2);
+        int mid = size / 2;
+        set(firstDiscs, mid - 1, mid - 1);
+        set(firstDiscs, mid, mid);
+        set(secondDiscs, mid - 1, mid);
+        set(secondDiscs, mid, mid - 1);
+        movesChanged();
     }
 
     /**
@@ -39,34 +153,123 @@ public class GameLogic implements PlayableLogic {
      * @return true if the location was valid and successful, false otherwise.
      */
     public boolean locate_disc(Position a, Disc disc) {
+        if (!doMove(a, disc)) {
+            return false;
+        }
+        if (listener != GameEventListener.NONE) {
+            boolean passed = journal[journalTop - 1] == 1;
+            int mover = passed ? playerType() : 3 - playerType();  // doMove already passed the turn, unless the next player had to pass
+            int count = journal[journalTop - 2];
+            listener.discPlaced(mover, disc.getType(), a.row(), a.col());
+            for (int i = journalTop - 3 - count; i < journalTop - 3; i++) {
+                listener.discFlipped(mover, typeAt(journal[i] / size, journal[i] % size), journal[i] / size, journal[i] % size);
+            }
+            if (passed) {
+                listener.turnPassed(3 - mover);
+            }
+            listener.moveFinished();
+        }
+        return true;
+    }
+
+    /**
+     * Plays a move without printing anything, for engines that search ahead on the live game.
+     * The move is recorded in the undo journal, so undoMove can take it back whatever the
+     * player types are, and neither method allocates once the journal is large enough. If the next
+     * player has no valid move but the mover has, the next player passes and the mover plays again.
+     * @param a The position for locating a new disc on the board.
+     * @param disc The disc to place, owned by the current player.
+     * @return true if the move was valid and played, false otherwise.
+     */
+    public boolean doMove(Position a, Disc disc) {
         int c = a.col();
         int r = a.row();
         // makes sure you can't add an Unflippable or a bomb disc if you ran out of them
-        if (reversiBoard[r][c] != null || (disc.getType().equals("⭕")  && playerNow.getNumber_of_unflippedable() == 0) || (disc.getType().equals("💣") && playerNow.getNumber_of_bombs() == 0)) {
+        if (occupied(r, c) || (disc.getType().equals("⭕")  && playerNow.getNumber_of_unflippedable() == 0) || (disc.getType().equals("💣") && playerNow.getNumber_of_bombs() == 0)) {
             return false;
         }
-        // if the location is valid - adds it to the stack of the positions and updates the amount of
-        // Unflippable or a bomb discs of the owner if needed
-        if (countFlips(a) > 0) {
-            posStack.push(a);
-            if (disc.getType().equals("⭕")) {
-                playerNow.reduce_unflippedable();
-            }
-            if (disc.getType().equals("💣")) {
-                playerNow.reduce_bomb();
+        int count = collectFlips(r, c, playerNow.isPlayerOne());
+        if (count == 0) {
+            return false;
+        }
+        long[] own = whoPlayer ? firstDiscs : secondDiscs;
+        long[] opp = whoPlayer ? secondDiscs : firstDiscs;
+        if (disc.getType().equals("⭕")) {
+            playerNow.reduce_unflippedable();
+            set(unflippables, r, c);
+        }
+        if (disc.getType().equals("💣")) {
+            playerNow.reduce_bomb();
+            set(bombs, r, c);
+        }
+        set(own, r, c);
+        if (journalTop + count + 3 > journal.length) {
+            journal = Arrays.copyOf(journal, Math.max(2 * journal.length, journalTop + count + 3));
+        }
+        for (int i = 0; i < count; i++) {
+            int sq = flipBuffer[i];
+            clear(opp, sq / size, sq % size);
+            set(own, sq / size, sq % size);
+            journal[journalTop++] = sq;
+        }
+        journal[journalTop++] = r * size + c;
+        journal[journalTop++] = count;
+        // Changes the turn from the current player to the next player, unless the next player has to pass
+        boolean passed = !hasMove(!whoPlayer) && hasMove(whoPlayer);
+        journal[journalTop++] = passed ? 1 : 0;
+        if (!passed) {
+            whoPlayer = !whoPlayer;
+            if (whoPlayer) {
+                playerNow = player1;
+            } else {
+                playerNow = player2;
             }
-            reversiBoard[r][c] = disc;
-            System.out.println("player "+playerType()+" placed a "+reversiBoard[r][c].getType()+" in "+"("+r+", "+c+")");
-            flipDisc(a);  // Updates the discs that were flipped as a result
-            whoPlayer = !whoPlayer;  // Changes the turn from the current player to the next player
+        }
+        movesChanged();
+        return true;
+    }
+
+    /**
+     * Takes back the last move played with doMove or locate_disc without printing anything,
+     * restoring the board, the turn (including a pass that followed the move) and the special discs of its owner.
+     * @return true if a move was taken back, false if there was none.
+     */
+    public boolean undoMove() {
+        if (journalTop == 0) {
+            return false;
+        }
+        boolean passed = journal[--journalTop] == 1;
+        int count = journal[--journalTop];
+        int sq = journal[--journalTop];
+        if (!passed) {
+            whoPlayer = !whoPlayer;
             if (whoPlayer) {
                 playerNow = player1;
             } else {
                 playerNow = player2;
             }
-            return true;
         }
-        return false;
+        // the turn is back with the player who made the move
+        int r = sq / size;
+        int c = sq % size;
+        if (has(unflippables, r, c)) {
+            playerNow.number_of_unflippedable++;
+            clear(unflippables, r, c);
+        }
+        if (has(bombs, r, c)) {
+            playerNow.number_of_bombs++;
+            clear(bombs, r, c);
+        }
+        long[] own = whoPlayer ? firstDiscs : secondDiscs;
+        long[] opp = whoPlayer ? secondDiscs : firstDiscs;
+        clear(own, r, c);
+        for (int i = 0; i < count; i++) {
+            int s = journal[--journalTop];
+            clear(own, s / size, s % size);
+            set(opp, s / size, s % size);
+        }
+        movesChanged();
+        return true;
     }
 
     /**
@@ -81,57 +284,218 @@ public class GameLogic implements PlayableLogic {
     }
 
     /**
-     * Flips the discs on the board after a valid move.
-     * Saves all flipped discs in the stack holding lists of moves  - to use in the Undo method
-     * @param p The position where the move was made.
+     * Adds the flips of a bomb chain: every flipped bomb flips the opponent discs around it, except the unflippable ones,
+     * and a bomb flipped that way explodes in turn. The chain is spread a ring at a time over whole planes - the
+     * neighbours of all the bombs that went off in the last ring are the 8 one-step shifts of the ring's plane - and the
+     * flipped plane marks the squares already taken, so every square joins the flips at most once, whatever the chain.
+     * @param count The number of flipped squares found so far, holding at least one bomb.
+     * @param opp The discs of the player being flipped.
+     * @return The new number of flipped squares.
      */
-    public void flipDisc(Position p) {
-        List<Move> flipList = new ArrayList<>(whatDiscFlip(p));
-        movesStack.push(flipList);
-        for (Move move : flipList) {
-            move.disc().setOwner(playerNow);
-            System.out.println("player "+playerType()+" flipped the "+move.disc().getType()+" in ("+move.position().row()+", "+move.position().col()+")");
+    private int collectBombFlips(int count, long[] opp) {
+        Arrays.fill(flipped, 0);
+        Arrays.fill(blast, 0);
+        for (int i = 0; i < count; i++) {
+            int sq = flipBuffer[i];
+            flipped[sq >>> 6] |= 1L << sq;
         }
-        System.out.println();
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            blast[w] = flipped[w] & bombs[w];
+            any |= blast[w] != 0;
+        }
+        while (any) {
+            // the neighbours of the ring into the frontier plane
+            Arrays.fill(frontier, 0);
+            for (int i = 0; i < 8; i++) {
+                int shift = INDEX_R[i] * size + INDEX_C[i];
+                long[] columns = INDEX_C[i] > 0 ? notFirstColumn : INDEX_C[i] < 0 ? notLastColumn : onBoard;
+                spread(blast, shift, columns, frontier);
+            }
+            any = false;
+            for (int w = 0; w < words; w++) {
+                long ring = frontier[w] & opp[w] & ~unflippables[w] & ~flipped[w];
+                flipped[w] |= ring;
+                blast[w] = ring & bombs[w];
+                any |= blast[w] != 0;
+                if (count + Long.bitCount(ring) > flipBuffer.length) {
+                    flipBuffer = Arrays.copyOf(flipBuffer, Math.max(2 * flipBuffer.length, count + Long.bitCount(ring)));
+                }
+                for (; ring != 0; ring &= ring - 1) {
+                    flipBuffer[count++] = w * 64 + Long.numberOfTrailingZeros(ring);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Moves every square of a plane one step in a direction and adds the moved squares to another plane.
+     * Squares that leave the board or wrap around to the other side of it are dropped.
+     * @param src The plane to move.
+     * @param shift The step in bits, row step * size + column step.
+     * @param columns The squares a step in this direction can land on.
+     * @param dst The plane the moved squares are added to.
+     */
+    private void spread(long[] src, int shift, long[] columns, long[] dst) {
+        int wordShift = Math.abs(shift) >>> 6;
+        int bitShift = Math.abs(shift) & 63;
+        for (int w = 0; w < words; w++) {
+            long word;
+            if (shift > 0) {
+                int from = w - wordShift;
+                word = from >= 0 ? src[from] << bitShift : 0;
+                if (bitShift != 0 && from > 0) {
+                    word |= src[from - 1] >>> (64 - bitShift);
+                }
+            } else {
+                int from = w + wordShift;
+                word = from < words ? src[from] >>> bitShift : 0;
+                if (bitShift != 0 && from + 1 < words) {
+                    word |= src[from + 1] << (64 - bitShift);
+                }
+            }
+            dst[w] |= word & columns[w];
+        }
+    }
+
+    /**
+     * Collects the squares (row * size + col) whose discs would be flipped if a disc is placed at the given square.
+     * They are written to the start of flipBuffer, which is reused so counting flips does not allocate.
+     * @param r The row of the placed disc.
+     * @param c The column of the placed disc.
+     * @param playerOne true to collect the flips of player 1, false for player 2.
+     * @return The number of flipped squares written to flipBuffer.
+     */
+    private int collectFlips(int r, int c, boolean playerOne) {
+        long[] own = playerOne ? firstDiscs : secondDiscs;
+        long[] opp = playerOne ? secondDiscs : firstDiscs;
+        int count = 0;
+        for (int i = 0; i < 8; i++) {
+            if (count + size > flipBuffer.length) {
+                flipBuffer = Arrays.copyOf(flipBuffer, 2 * flipBuffer.length);
+            }
+            int start = count;
+            int R = r + INDEX_R[i];
+            int C = c + INDEX_C[i];
+            while (inside(R, C) && has(opp, R, C)) {
+                if (!has(unflippables, R, C)) {
+                    flipBuffer[count++] = R * size + C;
+                }
+                R = R + INDEX_R[i];
+                C = C + INDEX_C[i];
+            }
+            // the line only counts if it is closed by a disc of the current player
+            if (!(inside(R, C) && has(own, R, C))) {
+                count = start;
+            }
+        }
+        for (int j = 0; j < count; j++) {
+            int sq = flipBuffer[j];
+            if (has(bombs, sq / size, sq % size)) {
+                return collectBombFlips(count, opp);
+            }
+        }
+        return count;
     }
 
     /**
-     * Counts the flips caused by a bomb disc that is placed on the board.
-     * @param list The list of moves to add the flipped discs to.
-     * @param move The move representing the bomb's position.
+     * Marks the empty squares that close a line of opponent discs for a player, for all 8 directions.
+     * Every step moves all the runs of the board at once, a 64-bit word at a time, so the work grows
+     * with the number of words, not squares. A line made only of unflippable discs is marked too -
+     * callers confirm those squares with collectFlips.
+     * @param playerOne true to mark the squares of player 1, false for player 2.
+     * @param stopAtFirst true to stop after the first direction that marks a valid square, confirming the marked squares on the way.
+     * @return true if the opponent has unflippable discs, so the marked squares need confirming - unless stopAtFirst confirmed them.
      */
-    private void countBombFlip(List<Move> list, Move move) {
-        int c = move.position().col();
-        int r = move.position().row();
-        int[] indexR = {-1, +1, -1, 1, 1, 0, 0, -1};
-        int[] indexC = {-1, +1, 1, -1, 0, 1, -1, 0};
-        // Circling the bomb position
+    private boolean markCandidates(boolean playerOne, boolean stopAtFirst) {
+        long[] own = playerOne ? firstDiscs : secondDiscs;
+        long[] opp = playerOne ? secondDiscs : firstDiscs;
+        boolean confirm = false;
+        for (int w = 0; w < words; w++) {
+            empties[w] = ~(firstDiscs[w] | secondDiscs[w]);
+            candidates[w] = 0;
+            confirm |= (opp[w] & unflippables[w]) != 0;
+        }
         for (int i = 0; i < 8; i++) {
-            int R = r + indexR[i];
-            int C = c + indexC[i];
-            if (R >= 0 && R < reversiBoard.length && C >= 0 && C < reversiBoard.length && reversiBoard[R][C] != null && reversiBoard[R][C].getOwner() != playerNow && !reversiBoard[R][C].getType().equals("⭕")) {
-                Position p = new Position(R, C);
-                Move m = new Move(p, reversiBoard[R][C]);
-                if (!ifContains(list, m)) {
-                    list.add(m);
+            int shift = INDEX_R[i] * size + INDEX_C[i];
+            long[] columns = INDEX_C[i] > 0 ? notFirstColumn : INDEX_C[i] < 0 ? notLastColumn : onBoard;
+            // start the runs of opponent discs next to an own disc, then grow them until they end
+            boolean any = step(own, opp, shift, columns, false);
+            while (any) {
+                long[] grown = frontier;
+                frontier = next;
+                next = grown;
+                any = step(grown, opp, shift, columns, true);
+            }
+            if (stopAtFirst && (confirm ? confirmCandidates(playerOne) : hasAny(candidates))) {
+                break;
+            }
+        }
+        return confirm;
+    }
+
+    /**
+     * Moves every square of a plane one step in a direction into the frontier, keeping only the opponent discs.
+     * Squares that leave the board or wrap around to the other side of it are dropped.
+     * @param src The plane to move, not the frontier itself.
+     * @param opp The discs of the opponent.
+     * @param shift The step in bits, row step * size + column step.
+     * @param columns The squares a step in this direction can land on.
+     * @param mark true to also mark the moved squares that land on an empty square as candidates.
+     * @return true if the frontier is not empty.
+     */
+    private boolean step(long[] src, long[] opp, int shift, long[] columns, boolean mark) {
+        int wordShift = Math.abs(shift) >>> 6;
+        int bitShift = Math.abs(shift) & 63;
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            long word;
+            if (shift > 0) {
+                int from = w - wordShift;
+                word = from >= 0 ? src[from] << bitShift : 0;
+                if (bitShift != 0 && from > 0) {
+                    word |= src[from - 1] >>> (64 - bitShift);
+                }
+            } else {
+                int from = w + wordShift;
+                word = from < words ? src[from] >>> bitShift : 0;
+                if (bitShift != 0 && from + 1 < words) {
+                    word |= src[from + 1] << (64 - bitShift);
                 }
             }
+            word &= columns[w];
+            if (mark) {
+                candidates[w] |= word & empties[w];
+            }
+            word &= opp[w];
+            frontier[w] = word;
+            any |= word != 0;
         }
+        return any;
     }
 
     /**
-     * Checks if a list of moves contains a specific move - used to avoid double counting of moves.
-     * @param list The list of moves to check.
-     * @param m The move to check for in the list.
-     * @return true if the move is already in the list, false otherwise.
+     * Removes the marked squares that are not valid moves, stopping at the first valid one.
+     * @param playerOne true to confirm the squares of player 1, false for player 2.
+     * @return true if a valid square was found.
      */
-    public boolean ifContains(List<Move> list, Move m) {
-        int c = m.position().col();
-        int r = m.position().row();
-        for (Move move : list) {
-            int C = move.position().col();
-            int R = move.position().row();
-            if (reversiBoard[r][c] == reversiBoard[R][C] && c == C && r == R) {
+    private boolean confirmCandidates(boolean playerOne) {
+        for (int w = 0; w < words; w++) {
+            for (long m = candidates[w]; m != 0; m &= m - 1) {
+                int sq = w * 64 + Long.numberOfTrailingZeros(m);
+                if (collectFlips(sq / size, sq % size, playerOne) > 0) {
+                    return true;
+                }
+                candidates[w] &= ~(m & -m);
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAny(long[] plane) {
+        for (long word : plane) {
+            if (word != 0) {
                 return true;
             }
         }
@@ -144,43 +508,65 @@ public class GameLogic implements PlayableLogic {
      * @return A list of moves holding the discs to be flipped.
      */
     public List<Move> whatDiscFlip(Position a) {
-        List<Move> moveList = new ArrayList<>();
-        int c = a.col();
-        int r = a.row();
-        List<Move> tempMove = new ArrayList<>();
-        int[] indexR = {-1, +1, -1, 1, 1, 0, 0, -1};
-        int[] indexC = {-1, +1, 1, -1, 0, 1, -1, 0};
-        for (int i = 0; i < 8; i++) {
-            int R = r + indexR[i];
-            int C = c + indexC[i];
-            while (R >= 0 && R < reversiBoard.length && C >= 0 && C < reversiBoard.length && reversiBoard[R][C] != null && reversiBoard[R][C].getOwner().isPlayerOne() != playerNow.isPlayerOne()) {
-                if (!reversiBoard[R][C].getType().equals("⭕")) {
-                    Position p = new Position(R, C);
-                    tempMove.add(new Move(p, reversiBoard[R][C]));
-                }
-                R = R + indexR[i];
-                C = C + indexC[i];
-            }
-            if (R >= 0 && R < reversiBoard.length && C >= 0 && C < reversiBoard.length && reversiBoard[R][C] != null && reversiBoard[R][C].getOwner().isPlayerOne() == playerNow.isPlayerOne()) {
-                moveList.addAll(tempMove);
-            }
-            tempMove.clear();
-        }
-        for (int j = 0; j < moveList.size(); j++) {
-            if (moveList.get(j).disc().getType().equals("💣")) {
-                countBombFlip(moveList, moveList.get(j));
-            }
+        int count = collectFlips(a.row(), a.col(), playerNow.isPlayerOne());
+        List<Move> moveList = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int R = flipBuffer[i] / size;
+            int C = flipBuffer[i] % size;
+            moveList.add(new Move(new Position(R, C), getDiscAtPosition(new Position(R, C))));
         }
         return moveList;
     }
 
     /**
      * Returns the disc that is placed at the given position.
+     * The board holds no Disc objects, so a new disc of the right type and owner is returned.
      * @param position The position of the disc to return.
-     * @return The disc at the specified position.
+     * @return The disc at the specified position, or null if the square is empty.
      */
     public Disc getDiscAtPosition(Position position) {
-        return reversiBoard[position.row()][position.col()];
+        int r = position.row();
+        int c = position.col();
+        Player owner;
+        if (has(firstDiscs, r, c)) {
+            owner = player1;
+        } else if (has(secondDiscs, r, c)) {
+            owner = player2;
+        } else {
+            return null;
+        }
+        if (has(bombs, r, c)) {
+            return new BombDisc(owner);
+        }
+        if (has(unflippables, r, c)) {
+            return new UnflippableDisc(owner);
+        }
+        return new SimpleDisc(owner);
+    }
+
+    /**
+     * Returns what is on a square as a number, read from the planes without creating a Disc.
+     * @param position The position to look at.
+     * @return 0 for an empty square, else 1 for a simple disc, 2 for an unflippable disc and 3 for a bomb, plus 3 for player 2.
+     */
+    public int discCode(Position position) {
+        int r = position.row();
+        int c = position.col();
+        int code;
+        if (has(firstDiscs, r, c)) {
+            code = 1;
+        } else if (has(secondDiscs, r, c)) {
+            code = 4;
+        } else {
+            return 0;
+        }
+        if (has(bombs, r, c)) {
+            return code + 2;
+        }
+        if (has(unflippables, r, c)) {
+            return code + 1;
+        }
+        return code;
     }
 
     /**
@@ -188,24 +574,19 @@ public class GameLogic implements PlayableLogic {
      * @return The size of the board (8 for a 8x8 board).
      */
     public int getBoardSize() {
-        return reversiBoard.length;
+        return size;
     }
 
     /**
      * Returns a list of all the valid moves for the current player to choose from.
-     * @return A list of valid positions where the current player can place a disc.
+     * The list is cached until the board changes, so repeated calls within a turn do not rescan the board.
+     * @return An unmodifiable list of valid positions where the current player can place a disc.
      */
     public List<Position> ValidMoves() {
-        List<Position> validList = new ArrayList<>();
-        for (int i = 0; i < reversiBoard.length; i++) {
-            for (int j = 0; j < reversiBoard[0].length; j++) {
-                Position pos = new Position(i, j);
-                if (countFlips(pos) > 0 && reversiBoard[i][j] == null) {
-                    validList.add(pos);
-                }
-            }
+        if (validMoves == null) {
+            scanMoves();
         }
-        return validList;
+        return validMoves;
     }
 
     /**
@@ -214,7 +595,111 @@ public class GameLogic implements PlayableLogic {
      * @return The number of flips that would occur.
      */
     public int countFlips(Position a) {
-        return whatDiscFlip(a).size();
+        if (!occupied(a.row(), a.col())) {
+            if (validMoves == null) {
+                scanMoves();
+            }
+            int i = Arrays.binarySearch(moveSquares, 0, validMoves.size(), a.row() * size + a.col());
+            return i < 0 ? 0 : moveFlips[i];
+        }
+        return collectFlips(a.row(), a.col(), playerNow.isPlayerOne());
+    }
+
+    /**
+     * Returns the flip count of every square, from the flip counts of the valid moves that are cached until the board changes.
+     * @return A new array of the flip counts indexed by row * size + col, 0 for squares that are not valid moves.
+     */
+    public int[] flipCounts() {
+        return flipCounts(new int[size * size]);
+    }
+
+    /**
+     * Writes the flip count of every square into a given array, from the cached flip counts of the valid moves.
+     * @param counts An array of at least size * size counts, which is overwritten.
+     * @return counts.
+     */
+    public int[] flipCounts(int[] counts) {
+        if (validMoves == null) {
+            scanMoves();
+        }
+        Arrays.fill(counts, 0, size * size, 0);
+        for (int i = 0; i < validMoves.size(); i++) {
+            counts[moveSquares[i]] = moveFlips[i];
+        }
+        return counts;
+    }
+
+    /**
+     * Fills the cached valid moves of the current player and their flip counts, counting flips only on the candidate squares.
+     */
+    private void scanMoves() {
+        List<Position> validList = new ArrayList<>();
+        int[] squares = new int[16];
+        int[] counts = new int[16];
+        markCandidates(whoPlayer, false);
+        for (int w = 0; w < words; w++) {
+            for (long m = candidates[w]; m != 0; m &= m - 1) {
+                int sq = w * 64 + Long.numberOfTrailingZeros(m);
+                int count = collectFlips(sq / size, sq % size, whoPlayer);
+                if (count > 0) {
+                    if (validList.size() == counts.length) {
+                        squares = Arrays.copyOf(squares, 2 * squares.length);
+                        counts = Arrays.copyOf(counts, 2 * counts.length);
+                    }
+                    squares[validList.size()] = sq;
+                    counts[validList.size()] = count;
+                    validList.add(new Position(sq / size, sq % size));
+                }
+            }
+        }
+        moveSquares = squares;
+        moveFlips = counts;
+        validMoves = Collections.unmodifiableList(validList);
+    }
+
+    /**
+     * Drops the cached valid moves and flip counts - called whenever the board or the turn changes.
+     */
+    private void movesChanged() {
+        validMoves = null;
+        moveSquares = null;
+        moveFlips = null;
+        moverMobility = -1;
+        opponentMobility = -1;
+    }
+
+    /**
+     * Checks if a player has a valid move, stopping at the first one found.
+     * @param playerOne true to check player 1, false for player 2.
+     * @return true if the player can place a disc somewhere.
+     */
+    private boolean hasMove(boolean playerOne) {
+        markCandidates(playerOne, true);
+        return hasAny(candidates);
+    }
+
+    /**
+     * Counts the valid squares of a player.
+     * @param playerOne true to count for player 1, false for player 2.
+     * @return The number of squares where the player can place a disc.
+     */
+    private int mobility(boolean playerOne) {
+        boolean confirm = markCandidates(playerOne, false);
+        int count = 0;
+        for (int w = 0; w < words; w++) {
+            long m = candidates[w];
+            if (!confirm) {
+                count += Long.bitCount(m);
+                continue;
+            }
+            for (; m != 0; m &= m - 1) {
+                int sq = w * 64 + Long.numberOfTrailingZeros(m);
+                if (collectFlips(sq / size, sq % size, playerOne) > 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
     }
 
     /**
@@ -242,6 +727,16 @@ public class GameLogic implements PlayableLogic {
         this.player1 = player1;
         this.player2 = player2;
         playerNow = player1;
+        movesChanged();
+    }
+
+    /**
+     * Sets who receives the game events - placements, flips, undos and the result.
+     * By default nobody does and the game reports nothing; new AsyncTextLogger(System.out) prints them.
+     * @param listener The listener, or null to stop reporting.
+     */
+    public void setEventListener(GameEventListener listener) {
+        this.listener = listener == null ? GameEventListener.NONE : listener;
     }
 
     /**
@@ -253,48 +748,76 @@ public class GameLogic implements PlayableLogic {
     }
 
     /**
-     * Determines if the game has finished.
+     * Determines if the game has finished, and if so records the result - a win for the player with more discs.
+     * Call it once when the game ends; use status() to look at the game without recording anything.
      * @return true if the game is finished, false otherwise.
      */
     public boolean isGameFinished() {
-        int discPlayer1 = 0;
-        int discPlayer2 = 0;
-        if (ValidMoves().isEmpty()) {
-            for (Disc[] discs : reversiBoard) {
-                for (int j = 0; j < reversiBoard[0].length; j++) {
-                    if (discs[j] != null && discs[j].getOwner().isPlayerOne()) {
-                        discPlayer1++;
-                    } else if (discs[j] != null) {
-                        discPlayer2++;
-                    }
-                }
-            }
-            if (discPlayer1 > discPlayer2) {
-                player1.addWin();
-                System.out.println("player 1 win with "+discPlayer1+" disc! player 2 had "+discPlayer2+" disc");
-            } else if (discPlayer1 < discPlayer2) {
-                player2.addWin();
-                System.out.println("player 2 win with "+discPlayer2+" disc! player 1 had "+discPlayer1+" disc");
-            }
+        GameStatus status = status();
+        if (status.isGameOver()) {
+            recordResult(status);
             return true;
         }
         return false;
     }
 
+    /**
+     * Reports where the game stands without changing anything: the mobility of both players,
+     * whether the player to move must pass or the game is over, and both disc counts.
+     * @return The status of the game.
+     */
+    public GameStatus status() {
+        if (moverMobility < 0) {
+            moverMobility = validMoves != null ? validMoves.size() : mobility(whoPlayer);  // counting is cheaper than scanning
+        }
+        if (opponentMobility < 0) {
+            opponentMobility = mobility(!whoPlayer);
+        }
+        int discPlayer1 = 0;
+        int discPlayer2 = 0;
+        for (int w = 0; w < firstDiscs.length; w++) {
+            discPlayer1 += Long.bitCount(firstDiscs[w]);
+            discPlayer2 += Long.bitCount(secondDiscs[w]);
+        }
+        return GameStatus.of(moverMobility, opponentMobility, discPlayer1, discPlayer2);
+    }
+
+    /**
+     * Records the result of a finished game: a win for the player with more discs, and the game over event.
+     */
+    public void recordResult() {
+        GameStatus status = status();
+        if (!status.isGameOver()) {
+            throw new IllegalStateException("The game is not over yet");
+        }
+        recordResult(status);
+    }
+
+    /**
+     * Records the result of a finished game.
+     * @param status The final status.
+     */
+    private void recordResult(GameStatus status) {
+        if (status.winner() == 1) {
+            player1.addWin();
+        } else if (status.winner() == 2) {
+            player2.addWin();
+        }
+        listener.gameOver(status.winner(), status.firstDiscs(), status.secondDiscs());
+    }
+
     /**
      * Resets the game board and the players settings to start a new game.
      */
     public void reset() {
-        for (int i = 0; i < reversiBoard.length; i++) {
-            for (int j = 0; j < reversiBoard[0].length; j++) {
-                reversiBoard[i][j] = null;
-            }
-        }
+        Arrays.fill(firstDiscs, 0);
+        Arrays.fill(secondDiscs, 0);
+        Arrays.fill(bombs, 0);
+        Arrays.fill(unflippables, 0);
         startGame();
         whoPlayer = true;
         playerNow = player1;
-        posStack.clear();
-        movesStack.clear();
+        journalTop = 0;
         player1.reset_bombs_and_unflippedable();
         player2.reset_bombs_and_unflippedable();
     }
@@ -304,39 +827,61 @@ public class GameLogic implements PlayableLogic {
      * Only works if both players are human.
      */
     public void undoLastMove() {
-        if (player1.isHuman() && player2.isHuman() && !posStack.empty()) {
-            System.out.println("Undoing last move :" );
-            Position undoPos = posStack.pop();
-            if (reversiBoard[undoPos.row()][undoPos.col()].getType().equals("⭕")) {
-                reversiBoard[undoPos.row()][undoPos.col()].getOwner().number_of_unflippedable++;
-            }
-            if (reversiBoard[undoPos.row()][undoPos.col()].getType().equals("💣")) {
-                reversiBoard[undoPos.row()][undoPos.col()].getOwner().number_of_bombs++;
-            }
-            System.out.println("\tUndo: removing "+ reversiBoard[undoPos.row()][undoPos.col()].getType()+" from "+"("+undoPos.row()+", "+undoPos.col()+")");
-            reversiBoard[undoPos.row()][undoPos.col()] = null;
-
-            List<Move> undoMove = movesStack.pop();
-            for (Move move : undoMove) {
-                if (reversiBoard[move.position().row()][move.position().col()].getOwner() == player1) {
-                    reversiBoard[move.position().row()][move.position().col()].setOwner(player2);
-                    System.out.println("\tUndo: flipping back " + reversiBoard[move.position().row()][move.position().col()].getType() + " in (" + move.position().row() + ", " + move.position().col() + ")");
-                } else {
-                    reversiBoard[move.position().row()][move.position().col()].setOwner(player1);
-                    System.out.println("\tUndo: flipping back " + reversiBoard[move.position().row()][move.position().col()].getType() + " in (" + move.position().row() + ", " + move.position().col() + ")");
+        if (player1.isHuman() && player2.isHuman() && journalTop > 0) {
+            if (listener != GameEventListener.NONE) {
+                listener.undoStarted();
+                int count = journal[journalTop - 2];
+                int sq = journal[journalTop - 3];
+                listener.discRemoved(typeAt(sq / size, sq % size), sq / size, sq % size);
+                for (int i = journalTop - 3 - count; i < journalTop - 3; i++) {
+                    listener.discFlippedBack(typeAt(journal[i] / size, journal[i] % size), journal[i] / size, journal[i] % size);
                 }
             }
-            if (playerNow == player1) {
-                playerNow = player2;
-            } else {
-                playerNow = player1;
-            }
-            whoPlayer = !whoPlayer;
-            System.out.println();
+            undoMove();
+            listener.undoFinished();
         }
         else {
-            System.out.println("\tNo previous move available to undo");
+            listener.undoRejected();
+        }
+    }
+
+    /**
+     * Returns the type symbol of the disc on an occupied square.
+     * @param r The row of the square.
+     * @param c The column of the square.
+     * @return "💣", "⭕" or "⬤".
+     */
+    private String typeAt(int r, int c) {
+        if (has(bombs, r, c)) {
+            return "💣";
         }
+        if (has(unflippables, r, c)) {
+            return "⭕";
+        }
+        return "⬤";
+    }
+
+    private boolean inside(int r, int c) {
+        return r >= 0 && r < size && c >= 0 && c < size;
+    }
+
+    private boolean occupied(int r, int c) {
+        return has(firstDiscs, r, c) || has(secondDiscs, r, c);
+    }
+
+    private boolean has(long[] plane, int r, int c) {
+        int sq = r * size + c;
+        return (plane[sq >>> 6] >>> sq & 1) != 0;  // the shift only uses the low 6 bits of sq
+    }
+
+    private void set(long[] plane, int r, int c) {
+        int sq = r * size + c;
+        plane[sq >>> 6] |= 1L << sq;
+    }
+
+    private void clear(long[] plane, int r, int c) {
+        int sq = r * size + c;
+        plane[sq >>> 6] &= ~(1L << sq);
     }
 }
 
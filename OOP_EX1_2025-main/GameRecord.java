@@ -0,0 +1,388 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A compact binary file of played games.
+ * The file starts with a 28-byte header: magic, version, board size, the bombs and unflippable discs every player
+ * starts with, and the number of games. Every game is its number of plies as an unsigned short followed by the plies.
+ * A ply is one byte on boards of up to 64 squares and a short on larger ones: the square (row * size + column) in the
+ * low bits and the disc type (BoardState.SIMPLE, UNFLIPPABLE or BOMB) in the top 2 bits, with all bits set for a pass.
+ * On the 8x8 board a move ply is the same as a BoardState move, so a 60-move game takes about 62 bytes.
+ * The Writer appends games to a temporary file and renames it when closed; the Reader maps the file and steps from
+ * game to game, reading plies straight from the mapped pages, so scanning a file allocates nothing per game or move.
+ * Usage: java GameRecord <file> [replay]
+ */
+public final class GameRecord {
+    private static final int MAGIC = 0x52564752;  // "RVGR"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 28;
+    private static final int GAMES_OFFSET = 20;  // where the header keeps the game count
+    private static final int MAX_SIZE = 128;  // the largest board whose squares fit in a short ply
+    private static final int WINDOW_BYTES = 1 << 30;  // the reader maps large files a window at a time
+
+    private GameRecord() {
+    }
+
+    /**
+     * Returns the bytes of one ply on a board.
+     * @param size The number of rows and columns of the board.
+     * @return 1 on boards of up to 64 squares, 2 on larger ones.
+     */
+    static int plyBytes(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Board size must be between 1 and " + MAX_SIZE + ": " + size);
+        }
+        return size * size <= BitBoard.SQUARES ? 1 : 2;
+    }
+
+    /**
+     * Returns the pass ply of a board.
+     * @param size The number of rows and columns of the board.
+     * @return The ply with all bits set.
+     */
+    public static int pass(int size) {
+        return (1 << 8 * plyBytes(size)) - 1;
+    }
+
+    /**
+     * Encodes a move as a ply.
+     * @param size The number of rows and columns of the board.
+     * @param move The move.
+     * @return The square and disc type of the move.
+     */
+    public static int encode(int size, Move move) {
+        int type = move.disc().getType().equals("💣") ? BoardState.BOMB
+                : move.disc().getType().equals("⭕") ? BoardState.UNFLIPPABLE : BoardState.SIMPLE;
+        return type << 8 * plyBytes(size) - 2 | move.position().row() * size + move.position().col();
+    }
+
+    /**
+     * Returns the square of a move ply.
+     * @param size The number of rows and columns of the board.
+     * @param ply A ply that is not a pass.
+     * @return The square, row * size + column.
+     */
+    public static int square(int size, int ply) {
+        return ply & (1 << 8 * plyBytes(size) - 2) - 1;
+    }
+
+    /**
+     * Returns the disc type of a move ply.
+     * @param size The number of rows and columns of the board.
+     * @param ply A ply that is not a pass.
+     * @return BoardState.SIMPLE, UNFLIPPABLE or BOMB.
+     */
+    public static int type(int size, int ply) {
+        return ply >>> 8 * plyBytes(size) - 2;
+    }
+
+    /**
+     * Writes games to a record file.
+     * The games of several threads can go to one writer, each write adds one whole game.
+     */
+    public static final class Writer implements Closeable {
+        private final Path file;
+        private final Path tmp;
+        private final int plyBytes;
+        private final DataOutputStream out;
+        private long games;
+
+        /**
+         * Creates a record file for games on one board size, with the current starting inventories.
+         * @param file The file to write; it appears only once the writer is closed.
+         * @param size The number of rows and columns of the board.
+         * @throws IOException If the file can't be created.
+         */
+        public Writer(Path file, int size) throws IOException {
+            this.file = file;
+            plyBytes = plyBytes(size);
+            tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(size);
+            out.writeInt(Player.initial_number_of_bombs);
+            out.writeInt(Player.initial_number_of_unflippedable);
+            out.writeLong(0);  // the game count, filled in by close
+        }
+
+        /**
+         * Appends a game.
+         * @param plies The plies of the game, in order, with the passes.
+         * @param count The number of plies.
+         * @throws IOException If the game can't be written.
+         */
+        public synchronized void write(int[] plies, int count) throws IOException {
+            if (count > 0xFFFF) {
+                throw new IllegalArgumentException("Too many plies in a game: " + count);
+            }
+            out.writeShort(count);
+            for (int i = 0; i < count; i++) {
+                if (plyBytes == 1) {
+                    out.writeByte(plies[i]);
+                } else {
+                    out.writeShort(plies[i]);
+                }
+            }
+            games++;
+        }
+
+        /**
+         * Returns the number of games written so far.
+         * @return The game count.
+         */
+        public synchronized long games() {
+            return games;
+        }
+
+        /**
+         * Fills in the game count and moves the file to its name.
+         * @throws IOException If the file can't be completed.
+         */
+        @Override
+        public synchronized void close() throws IOException {
+            out.close();
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.allocate(Long.BYTES).putLong(0, games), GAMES_OFFSET);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Reads a record file one game at a time.
+     * Call next to move to a game, then read its plies with plies and ply, or replay it into a GameLogic.
+     */
+    public static final class Reader implements Closeable {
+        private final FileChannel channel;
+        private final long length;
+        private final int size;
+        private final int plyBytes;
+        private final int bombs;
+        private final int unflippables;
+        private final long games;
+        private MappedByteBuffer window;  // the mapped part of the file
+        private long windowStart;  // the file offset of the window
+        private long offset;  // the file offset of the next game
+        private long game;  // the number of games stepped over, including the current one
+        private int position;  // the window offset of the current game's first ply
+        private int plies;  // the ply count of the current game
+
+        /**
+         * Opens a record file and maps its first window.
+         * @param file The record file.
+         * @throws IOException If the file can't be read.
+         */
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file);
+            try {
+                length = channel.size();
+                if (length < HEADER_BYTES) {
+                    throw new IllegalArgumentException("Not a game record file: " + file);
+                }
+                map(0);
+                if (window.getInt(0) != MAGIC || window.getInt(4) != VERSION) {
+                    throw new IllegalArgumentException("Not a game record file: " + file);
+                }
+                size = window.getInt(8);
+                plyBytes = plyBytes(size);
+                bombs = window.getInt(12);
+                unflippables = window.getInt(16);
+                games = window.getLong(GAMES_OFFSET);
+                offset = HEADER_BYTES;
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+
+        private void map(long start) throws IOException {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, length - start));
+            windowStart = start;
+        }
+
+        /**
+         * Moves to the next game.
+         * @return true if there was another game, false at the end of the file.
+         * @throws IOException If the file can't be mapped.
+         */
+        public boolean next() throws IOException {
+            if (game == games) {
+                return false;
+            }
+            if (offset + 2 > length) {
+                throw new IllegalStateException("Game record file ends inside game " + game);
+            }
+            if (offset < windowStart || offset + 2 > windowStart + window.limit()) {
+                map(offset);
+            }
+            plies = window.getShort((int) (offset - windowStart)) & 0xFFFF;
+            long end = offset + 2 + (long) plies * plyBytes;
+            if (end > length) {
+                throw new IllegalStateException("Game record file ends inside game " + game);
+            }
+            if (end > windowStart + window.limit()) {
+                map(offset);  // the game crosses the end of the window
+            }
+            position = (int) (offset - windowStart) + 2;
+            offset = end;
+            game++;
+            return true;
+        }
+
+        /**
+         * Returns where the next game starts, to come back to it later with seek.
+         * @return The file offset of the next game.
+         */
+        public long nextOffset() {
+            return offset;
+        }
+
+        /**
+         * Moves back or ahead to a game whose offset was taken with nextOffset, so the next call to next reads it.
+         * @param offset The file offset of the game.
+         * @param game The index of the game in the file.
+         */
+        public void seek(long offset, long game) {
+            if (offset < HEADER_BYTES || offset > length || game < 0 || game > games) {
+                throw new IllegalArgumentException("No game " + game + " at offset " + offset);
+            }
+            this.offset = offset;
+            this.game = game;
+        }
+
+        /**
+         * Returns the number of plies of the current game.
+         * @return The ply count, passes included.
+         */
+        public int plies() {
+            return plies;
+        }
+
+        /**
+         * Returns a ply of the current game.
+         * @param i The index of the ply, from 0.
+         * @return The ply.
+         */
+        public int ply(int i) {
+            if (i < 0 || i >= plies) {
+                throw new IndexOutOfBoundsException("Ply " + i + " of " + plies);
+            }
+            return plyBytes == 1 ? window.get(position + i) & 0xFF : window.getShort(position + 2 * i) & 0xFFFF;
+        }
+
+        /**
+         * Plays the current game on a GameLogic from the start, through locate_disc.
+         * The game's players must be set; the passes are checked against the ones the game makes by itself.
+         * @param gameLogic The game to replay into, it is reset first.
+         * @throws IllegalArgumentException If the game has another board size or starting inventories.
+         * @throws IllegalStateException If a recorded move is illegal or a pass does not match the game.
+         */
+        public void replay(GameLogic gameLogic) {
+            if (gameLogic.getBoardSize() != size) {
+                throw new IllegalArgumentException("Record is for " + size + "x" + size + " boards, the game has size " + gameLogic.getBoardSize());
+            }
+            if (bombs != Player.initial_number_of_bombs || unflippables != Player.initial_number_of_unflippedable) {
+                throw new IllegalArgumentException("Record was played with " + bombs + " bombs and " + unflippables + " unflippable discs");
+            }
+            gameLogic.reset();
+            int pass = pass(size);
+            boolean passDue = false;  // the last move made the next player pass
+            for (int i = 0; i < plies; i++) {
+                int ply = ply(i);
+                if (ply == pass) {
+                    if (!passDue) {
+                        throw new IllegalStateException("Ply " + i + " of game " + (game - 1) + " passes with a move available");
+                    }
+                    passDue = false;
+                    continue;
+                }
+                if (passDue) {
+                    throw new IllegalStateException("Ply " + i + " of game " + (game - 1) + " is missing a pass");
+                }
+                boolean firstToMove = gameLogic.isFirstPlayerTurn();
+                Player player = firstToMove ? gameLogic.getFirstPlayer() : gameLogic.getSecondPlayer();
+                int sq = square(size, ply);
+                Disc disc = type(size, ply) == BoardState.BOMB ? new BombDisc(player)
+                        : type(size, ply) == BoardState.UNFLIPPABLE ? new UnflippableDisc(player) : new SimpleDisc(player);
+                if (!gameLogic.locate_disc(new Position(sq / size, sq % size), disc)) {
+                    throw new IllegalStateException("Ply " + i + " of game " + (game - 1) + " is not a valid move");
+                }
+                passDue = gameLogic.isFirstPlayerTurn() == firstToMove && !gameLogic.status().isGameOver();
+            }
+        }
+
+        /**
+         * Returns the board size of the recorded games.
+         * @return The number of rows and columns.
+         */
+        public int boardSize() {
+            return size;
+        }
+
+        /**
+         * Returns the number of games in the file.
+         * @return The game count.
+         */
+        public long games() {
+            return games;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Scans a record file and prints its statistics, optionally replaying every game to check it.
+     * Usage: java GameRecord <file> [replay]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java GameRecord <file> [replay]");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        boolean replay = args.length > 1 && args[1].equals("replay");
+        long start = System.nanoTime();
+        long plies = 0;
+        long passes = 0;
+        long specials = 0;
+        try (Reader reader = new Reader(file)) {
+            int pass = pass(reader.boardSize());
+            GameLogic gameLogic = null;
+            if (replay) {
+                gameLogic = new GameLogic(reader.boardSize());
+                gameLogic.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            }
+            while (reader.next()) {
+                for (int i = 0; i < reader.plies(); i++) {
+                    int ply = reader.ply(i);
+                    if (ply == pass) {
+                        passes++;
+                    } else if (type(reader.boardSize(), ply) != BoardState.SIMPLE) {
+                        specials++;
+                    }
+                }
+                plies += reader.plies();
+                if (replay) {
+                    reader.replay(gameLogic);
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d games on %dx%d boards, %d plies (%d passes, %d special discs)%n",
+                    reader.games(), reader.boardSize(), reader.boardSize(), plies, passes, specials);
+            System.out.printf("%s in %.2fs, %.0f MB/s%n", replay ? "replayed" : "scanned", seconds, Files.size(file) / 1e6 / seconds);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * A snapshot of where a game stands: whether it goes on, whether the player to move must pass,
+ * or whether it is over, together with both players' mobility and disc counts.
+ * Asking for it has no side effects, so engines and the GUI can query it as often as they like.
+ * @param phase Whether the game goes on, the player to move must pass, or the game is over.
+ * @param moverMobility The number of valid squares of the player to move.
+ * @param opponentMobility The number of valid squares of the other player.
+ * @param firstDiscs The disc count of player 1.
+ * @param secondDiscs The disc count of player 2.
+ */
+public record GameStatus(Phase phase, int moverMobility, int opponentMobility, int firstDiscs, int secondDiscs) {
+
+    /**
+     * The phases of a game.
+     */
+    public enum Phase {
+        PLAYING,  // the player to move has a valid move
+        PASS,  // the player to move has no valid move, but the other player has
+        GAME_OVER  // neither player has a valid move
+    }
+
+    /**
+     * Creates a status from the mobility of both players, deriving the phase.
+     * @param moverMobility The number of valid squares of the player to move.
+     * @param opponentMobility The number of valid squares of the other player.
+     * @param firstDiscs The disc count of player 1.
+     * @param secondDiscs The disc count of player 2.
+     * @return The status.
+     */
+    public static GameStatus of(int moverMobility, int opponentMobility, int firstDiscs, int secondDiscs) {
+        Phase phase = moverMobility > 0 ? Phase.PLAYING : opponentMobility > 0 ? Phase.PASS : Phase.GAME_OVER;
+        return new GameStatus(phase, moverMobility, opponentMobility, firstDiscs, secondDiscs);
+    }
+
+    /**
+     * Checks if the game is over.
+     * @return true if neither player can move.
+     */
+    public boolean isGameOver() {
+        return phase == Phase.GAME_OVER;
+    }
+
+    /**
+     * Returns the player with more discs.
+     * @return 1 or 2 for the player with more discs, 0 if the counts are equal.
+     */
+    public int winner() {
+        return firstDiscs > secondDiscs ? 1 : firstDiscs < secondDiscs ? 2 : 0;
+    }
+}
@@ -1,6 +1,7 @@
 import javax.swing.*;
 import javax.swing.plaf.ColorUIResource;
 import java.awt.*;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -18,9 +19,14 @@ public class Main {
 
             // Manually register all AI player subclasses
             AIPlayer.registerAllAIPlayers();
+            AIPlayer.loadOpeningBook(Path.of(OpeningBook.DEFAULT_FILE));  // the AI players open from the book, if it was built
+            AIPlayer.loadPatternWeights(Path.of(PatternEvaluator.DEFAULT_FILE));  // and evaluate with trained weights, if there are any
 
             // Create game logic
-            PlayableLogic gameLogic = new GameLogic();
+            GameLogic gameLogic = new GameLogic();
+            AsyncTextLogger logger = new AsyncTextLogger(System.out);
+            gameLogic.setEventListener(logger);  // keeps the move log on the console
+            Runtime.getRuntime().addShutdownHook(new Thread(logger::close));  // writes out the end of the log on exit
 
             // Create and show the game GUI
             GUI_for_chess_like_games gui = new GUI_for_chess_like_games(gameLogic, "Reversi Game");
@@ -0,0 +1,324 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * An AI player that chooses its move with Monte Carlo Tree Search.
+ * Every playout walks down the tree with UCT selection, adds one node, and finishes the game with
+ * uniformly random moves - any legal square with any disc type the player still has, so bombs and
+ * unflippables obey the same limits as in Player. With several threads every thread grows its own
+ * tree from the same root (root parallelization) and the root visit counts are summed at the end.
+ * Playouts work on a scratch BoardState and a preallocated move buffer, so they do not allocate.
+ */
+public class MctsAI extends AIPlayer {
+    private static final double EXPLORATION = 1.4;  // the UCT exploration constant
+    private static final int NODE_BYTES = 40;  // estimated heap size of a Node object
+    private static final int ARRAY_HEADER_BYTES = 16;  // estimated heap overhead of an array
+    private long playoutBudget;  // playouts per move, over all threads
+    private int threads;
+    private ForkJoinPool pool;  // runs the trees when there is more than one thread
+    private final SplittableRandom seeds;  // seeds the random generator of every tree
+    private final AtomicBoolean stopRequested;  // set by stopThinking, stays set until resumeThinking
+    private long lastPlayouts;
+    private long lastElapsedNanos;
+    private long lastTreeNodes;
+    private long lastTreeBytes;
+
+    /**
+     * Constructor for the MctsAI class.
+     * Initializes the player (either Player 1 or Player 2) with 10000 playouts per move on a single thread.
+     * @param isPlayerOne Boolean flag indicating whether this AI controls Player 1 (true) or Player 2 (false).
+     */
+    public MctsAI(boolean isPlayerOne) {
+        super(isPlayerOne);
+        playoutBudget = 10_000;
+        threads = 1;
+        seeds = new SplittableRandom();
+        stopRequested = new AtomicBoolean();
+    }
+
+    /**
+     * Sets how many playouts every move may use - more playouts make a stronger but slower player.
+     * @param playoutBudget The playouts per move, over all threads.
+     */
+    public void setPlayoutBudget(long playoutBudget) {
+        if (playoutBudget < 1) {
+            throw new IllegalArgumentException("Playout budget must be at least 1: " + playoutBudget);
+        }
+        this.playoutBudget = playoutBudget;
+    }
+
+    /**
+     * Sets how many threads grow trees for every move.
+     * @param threads The thread count, each growing its own tree from the root.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        this.threads = threads;
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads);
+        }
+    }
+
+    /**
+     * Makes a move by running the playouts on a copy of the current position, or plays the opening book move if there is one.
+     * Once few squares are empty the rest of the game is solved exactly instead.
+     * The playouts work on 8x8 boards only, on other sizes the move with the most flips is played.
+     * @param gameStatus The current game status, including the board state and valid moves.
+     * @return The root move that was visited the most.
+     */
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE) {
+            return greedyMove(gameStatus);
+        }
+        Move book = bookMove(gameStatus);
+        if (book != null) {
+            return book;
+        }
+        Move solved = endgameMove(gameStatus);
+        if (solved != null) {
+            return solved;
+        }
+        return BoardState.toMove(search(BoardState.of(gameStatus)), this);
+    }
+
+    /**
+     * Runs the playout budget from a position and picks the most visited root move.
+     * @param root The position to search, it is not modified.
+     * @return The chosen encoded move, or -1 if the player to move has no valid square.
+     */
+    int search(BoardState root) {
+        long start = System.nanoTime();
+        Tree[] trees = new Tree[threads];
+        for (int i = 0; i < threads; i++) {
+            trees[i] = new Tree(root, playoutBudget / threads + (i < playoutBudget % threads ? 1 : 0), seeds.split(), stopRequested);
+        }
+        if (threads == 1) {
+            trees[0].run();
+        } else {
+            ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                tasks[i] = pool.submit(trees[i]);
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        }
+        lastElapsedNanos = System.nanoTime() - start;
+        lastPlayouts = 0;
+        lastTreeNodes = 0;
+        lastTreeBytes = 0;
+        for (Tree tree : trees) {
+            lastPlayouts += tree.playouts;
+            lastTreeNodes += tree.nodes;
+            lastTreeBytes += tree.nodes * NODE_BYTES + tree.arrayBytes;
+        }
+        // every tree expanded the root with the same move order, so the children line up
+        Node[] children = trees[0].root.children;
+        if (children == null || children.length == 0 || children[0].move == BoardState.PASS) {
+            return -1;
+        }
+        int best = 0;
+        long bestVisits = -1;
+        for (int i = 0; i < children.length; i++) {
+            long visits = 0;
+            for (Tree tree : trees) {
+                if (tree.root.children != null) {  // a tree with no playouts never expanded its root
+                    visits += tree.root.children[i].visits;
+                }
+            }
+            if (visits > bestVisits) {
+                bestVisits = visits;
+                best = i;
+            }
+        }
+        return children[best].move;
+    }
+
+    /**
+     * Stops the running playouts, which then play the most visited root move so far.
+     * Playouts that have not started yet stop as well, until resumeThinking is called.
+     */
+    @Override
+    public void stopThinking() {
+        stopRequested.set(true);
+    }
+
+    /**
+     * Withdraws the stop request, so the next move runs all its playouts.
+     */
+    @Override
+    public void resumeThinking() {
+        stopRequested.set(false);
+    }
+
+    /**
+     * Returns the playouts the last move ran.
+     * @return The playout count.
+     */
+    public long getLastPlayouts() {
+        return lastPlayouts;
+    }
+
+    /**
+     * Returns the speed of the last move, for tuning the playout budget to a latency budget.
+     * @return Playouts per second over all threads.
+     */
+    public double getLastPlayoutsPerSecond() {
+        return lastElapsedNanos == 0 ? 0 : lastPlayouts * 1e9 / lastElapsedNanos;
+    }
+
+    /**
+     * Returns the number of tree nodes the last move created, over all threads.
+     * @return The node count.
+     */
+    public long getLastTreeNodes() {
+        return lastTreeNodes;
+    }
+
+    /**
+     * Returns an estimate of the heap the last move's trees used.
+     * @return The estimated size in bytes.
+     */
+    public long getLastTreeBytes() {
+        return lastTreeBytes;
+    }
+
+    /**
+     * A tree node: the move leading to it and its playout statistics.
+     * The score counts wins (1) and draws (0.5) for the player who made the move.
+     */
+    private static final class Node {
+        private final int move;
+        private int visits;
+        private double score;
+        private Node[] children;  // null until the node is expanded
+
+        Node(int move) {
+            this.move = move;
+        }
+    }
+
+    /**
+     * One thread's tree with its own scratch position, buffers and random generator.
+     */
+    private static final class Tree implements Runnable {
+        private final Node root;
+        private final BoardState rootState;
+        private final BoardState scratch;
+        private final int[] moves;
+        private final Node[] path;  // the nodes of the current playout, root first
+        private final long budget;
+        private final SplittableRandom random;
+        private long playouts;
+        private long nodes;
+        private long arrayBytes;
+        private final AtomicBoolean stopped;  // the player's stop request
+
+        Tree(BoardState rootState, long budget, SplittableRandom random, AtomicBoolean stopped) {
+            this.rootState = rootState;
+            this.stopped = stopped;
+            this.budget = budget;
+            this.random = random;
+            root = new Node(-1);
+            scratch = new BoardState();
+            moves = new int[BoardState.MAX_MOVES];
+            path = new Node[SearchEngine.MAX_PLY + 1];
+            nodes = 1;
+        }
+
+        @Override
+        public void run() {
+            // at least one playout, so a stopped search still has an expanded root to choose from
+            for (; playouts < budget && (playouts == 0 || !stopped.get()); playouts++) {
+                playout();
+            }
+        }
+
+        /**
+         * Runs one playout: select down the tree, expand one node, play randomly to the end and back up the result.
+         */
+        private void playout() {
+            scratch.copyFrom(rootState);
+            Node node = root;
+            int length = 0;
+            path[length++] = node;
+            // selection: follow UCT while the node is expanded
+            while (node.children != null && node.children.length > 0) {
+                node = select(node);
+                scratch.play(node.move);
+                path[length++] = node;
+            }
+            // expansion: create the children of a leaf that was visited before
+            if (node.children == null && (node.visits > 0 || node == root)) {
+                expand(node);
+                if (node.children.length > 0) {
+                    node = node.children[random.nextInt(node.children.length)];
+                    scratch.play(node.move);
+                    path[length++] = node;
+                }
+            }
+            // simulation
+            int n;
+            while ((n = scratch.generateMoves(moves)) > 0) {
+                scratch.play(moves[random.nextInt(n)]);
+            }
+            int firstMinusSecond = Long.bitCount(scratch.discs[0]) - Long.bitCount(scratch.discs[1]);
+            // backpropagation: every node is scored for the player who moved into it
+            boolean firstMoved = rootState.side == 0;
+            for (int i = 0; i < length; i++) {
+                Node p = path[i];
+                p.visits++;
+                if (i > 0) {
+                    int diff = firstMoved ? firstMinusSecond : -firstMinusSecond;
+                    p.score += diff > 0 ? 1 : diff == 0 ? 0.5 : 0;
+                    firstMoved = !firstMoved;
+                }
+            }
+        }
+
+        /**
+         * Picks the child with the best UCT value; unvisited children come first.
+         * @param node An expanded node.
+         * @return The child to follow.
+         */
+        private Node select(Node node) {
+            double logVisits = Math.log(node.visits);
+            Node best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Node child : node.children) {
+                if (child.visits == 0) {
+                    return child;
+                }
+                double value = child.score / child.visits + EXPLORATION * Math.sqrt(logVisits / child.visits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Creates a child for every legal move of the scratch position.
+         * @param node The node matching the scratch position.
+         */
+        private void expand(Node node) {
+            int n = scratch.generateMoves(moves);
+            node.children = new Node[n];
+            for (int i = 0; i < n; i++) {
+                node.children[i] = new Node(moves[i]);
+            }
+            nodes += n;
+            arrayBytes += ARRAY_HEADER_BYTES + 4L * n;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * An AI player that searches ahead with the SearchEngine: negamax alpha-beta with
+ * principal-variation search, aspiration windows, killer/history ordering and iterative deepening.
+ * It always searches a private BoardState copy, never the live game.
+ * While the opponent is to move it can ponder: search every reply ahead, so that its own move is found in the
+ * transposition table at once when the opponent plays the predicted reply, and faster when not.
+ */
+public class MinimaxAI extends AIPlayer {
+    private final SearchEngine engine;
+
+    /**
+     * Constructor for the MinimaxAI class.
+     * Initializes the player (either Player 1 or Player 2) with a depth 6 search and no node budget.
+     * @param isPlayerOne Boolean flag indicating whether this AI controls Player 1 (true) or Player 2 (false).
+     */
+    public MinimaxAI(boolean isPlayerOne) {
+        super(isPlayerOne);
+        engine = new SearchEngine();
+    }
+
+    /**
+     * Sets how deep the search may go.
+     * @param maxDepth The depth limit in plies.
+     */
+    public void setMaxDepth(int maxDepth) {
+        engine.setMaxDepth(maxDepth);
+    }
+
+    /**
+     * Sets how many nodes a single move may search.
+     * @param nodeBudget The node limit, 0 for no limit.
+     */
+    public void setNodeBudget(long nodeBudget) {
+        engine.setNodeBudget(nodeBudget);
+    }
+
+    /**
+     * Sets the size of the off-heap transposition table, clearing it.
+     * @param hashSizeMB The table size in megabytes.
+     */
+    public void setHashSize(int hashSizeMB) {
+        engine.setHashSize(hashSizeMB);
+    }
+
+    /**
+     * Sets how many threads search every move of this player.
+     * @param threads 1 for a single-threaded search, more for a Lazy SMP search sharing one transposition table.
+     */
+    public void setThreads(int threads) {
+        engine.setThreads(threads);
+    }
+
+    /**
+     * Makes a move by searching a copy of the current position, or plays the opening book move if there is one.
+     * Once few squares are empty the rest of the game is solved exactly instead.
+     * The search works on 8x8 boards only, on other sizes the move with the most flips is played.
+     * @param gameStatus The current game status, including the board state and valid moves.
+     * @return The best move found by the search.
+     */
+    @Override
+    public Move makeMove(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE) {
+            return greedyMove(gameStatus);
+        }
+        Move book = bookMove(gameStatus);
+        if (book != null) {
+            return book;
+        }
+        Move solved = endgameMove(gameStatus);
+        if (solved != null) {
+            return solved;
+        }
+        engine.setEvaluator(patternEvaluator());
+        BoardState root = BoardState.of(gameStatus);
+        int move = engine.ponderHit(root);  // the pondering already searched this position to full depth
+        if (move < 0) {
+            move = engine.search(root);
+        }
+        return BoardState.toMove(move, this);
+    }
+
+    /**
+     * Searches the opponent's position one ply deeper than a move, filling the transposition table with the
+     * positions after every reply, until done or stopPondering is called.
+     * @param gameStatus A copy of the game, with the opponent to move.
+     */
+    @Override
+    public void ponder(PlayableLogic gameStatus) {
+        if (gameStatus.getBoardSize() != BitBoard.SIZE || gameStatus.status().isGameOver()) {
+            return;
+        }
+        engine.setEvaluator(patternEvaluator());
+        engine.ponder(BoardState.of(gameStatus));
+    }
+
+    /**
+     * Stops the pondering search.
+     */
+    @Override
+    public void stopPondering() {
+        engine.stop();
+    }
+
+    /**
+     * Stops the running search, which then plays the best move of its last completed iteration.
+     */
+    @Override
+    public void stopThinking() {
+        engine.stop();
+    }
+
+    /**
+     * Withdraws the stop request, so the next search runs in full.
+     */
+    @Override
+    public void resumeThinking() {
+        engine.clearStop();
+    }
+
+    /**
+     * Returns the number of nodes the last move searched.
+     * @return The node count.
+     */
+    public long getLastNodes() {
+        return engine.getNodes();
+    }
+
+    /**
+     * Returns the search speed of the last move, for sizing hardware to a playing strength.
+     * @return Nodes searched per second.
+     */
+    public double getLastNodesPerSecond() {
+        return engine.getNodesPerSecond();
+    }
+
+    /**
+     * Returns the deepest iteration the last move completed.
+     * @return The completed depth in plies.
+     */
+    public int getLastDepth() {
+        return engine.getCompletedDepth();
+    }
+}
@@ -0,0 +1,215 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * An opening book: the moves played most often from the early positions of self-play games, looked up by Zobrist hash.
+ * The book is a binary file of 12-byte entries sorted by hash, each holding the position's hash and one packed int
+ * with the encoded move (square and disc type) in the low 8 bits and the number of times it was played above them.
+ * Entries of the same position follow each other, most played first. The file is memory-mapped, so a lookup is a
+ * binary search over the mapped pages - it takes microseconds, allocates nothing and can be shared by any number of players.
+ * The book is built offline by playing self-play games with the SearchEngine, picking a random move now and then so
+ * the games spread over many openings, and keeping the engine moves of the positions that were reached often enough.
+ * Usage: java OpeningBook <file> [games] [plies] [minCount] [depth]
+ */
+public class OpeningBook {
+    public static final String DEFAULT_FILE = "opening.book";  // the book the game loads if it exists
+    private static final int MAGIC = 0x5256424B;  // "RVBK"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 12;  // magic, version and entry count
+    private static final int ENTRY_BYTES = 12;  // hash and packed move
+    private static final int MAX_COUNT = (1 << 24) - 1;  // play counts are capped to fit next to the move
+    private static final int RANDOM_MOVE_ONE_IN = 4;  // the builder plays a random move once in this many plies
+
+    private final MappedByteBuffer entries;
+    private final int size;  // the number of entries
+
+    /**
+     * Constructor for the OpeningBook class.
+     * @param entries The mapped book file.
+     * @param size The number of entries.
+     */
+    private OpeningBook(MappedByteBuffer entries, int size) {
+        this.entries = entries;
+        this.size = size;
+    }
+
+    /**
+     * Maps a book file into memory.
+     * @param file The book file.
+     * @return The book.
+     * @throws IOException If the file can't be read.
+     */
+    public static OpeningBook open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file)) {
+            long length = channel.size();
+            if (length < HEADER_BYTES || length > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Not an opening book: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            int size = buffer.getInt(8);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION || (long) size * ENTRY_BYTES + HEADER_BYTES != length) {
+                throw new IllegalArgumentException("Not an opening book: " + file);
+            }
+            return new OpeningBook(buffer, size);
+        }
+    }
+
+    /**
+     * Looks up the most played move of a position.
+     * @param hash The Zobrist hash of the position.
+     * @return The encoded move, or -1 if the position is not in the book.
+     */
+    public int lookup(long hash) {
+        // find the first entry whose hash is not smaller than the one looked for
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (hashAt(mid) < hash) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        if (low == size || hashAt(low) != hash) {
+            return -1;
+        }
+        return entries.getInt(HEADER_BYTES + low * ENTRY_BYTES + 8) & 0xFF;
+    }
+
+    /**
+     * Looks up the most played move of a position, checking that it is a valid move there.
+     * @param state The position.
+     * @return The encoded move, or -1 if the position is not in the book.
+     */
+    public int lookup(BoardState state) {
+        int move = lookup(state.hash());
+        if (move < 0 || (state.legalSquares() & 1L << BoardState.square(move)) == 0
+                || (BoardState.type(move) == BoardState.BOMB && state.bombsLeft[state.side] == 0)
+                || (BoardState.type(move) == BoardState.UNFLIPPABLE && state.unflippablesLeft[state.side] == 0)) {
+            return -1;  // a hash collision with a position the book does not know
+        }
+        return move;
+    }
+
+    /**
+     * Returns the number of entries in the book.
+     * @return The entry count.
+     */
+    public int size() {
+        return size;
+    }
+
+    private long hashAt(int index) {
+        return entries.getLong(HEADER_BYTES + index * ENTRY_BYTES);
+    }
+
+    /**
+     * Builds a book from self-play games and writes it to a file.
+     * Every game plays the engine's move, or a random one once in a while, for the first plies of the game.
+     * @param file The file to write; it is replaced only once the new book is complete.
+     * @param games The number of self-play games.
+     * @param plies The number of moves of every game that go into the book.
+     * @param minCount The number of times a position must be reached to go into the book.
+     * @param depth The search depth of the engine.
+     * @param seed Seeds the random moves.
+     * @return The number of entries written.
+     * @throws IOException If the file can't be written.
+     */
+    public static int build(Path file, int games, int plies, int minCount, int depth, long seed) throws IOException {
+        if (games < 1 || plies < 1 || minCount < 1) {
+            throw new IllegalArgumentException("Games, plies and minimum count must be positive");
+        }
+        SearchEngine engine = new SearchEngine();
+        engine.setMaxDepth(depth);
+        SplittableRandom random = new SplittableRandom(seed);
+        Map<Long, Map<Integer, Integer>> played = new HashMap<>();  // position hash -> engine move -> times played
+        int[] moves = new int[BoardState.MAX_MOVES];
+        for (int g = 0; g < games; g++) {
+            BoardState state = BoardState.start();
+            for (int ply = 0; ply < plies; ply++) {
+                int n = state.generateMoves(moves);
+                if (n == 0) {
+                    break;
+                }
+                if (moves[0] == BoardState.PASS) {
+                    state.play(BoardState.PASS);
+                    continue;
+                }
+                int move;
+                if (random.nextInt(RANDOM_MOVE_ONE_IN) == 0) {
+                    move = moves[random.nextInt(n)];  // explore, but keep random moves out of the book
+                } else {
+                    move = engine.search(state);
+                    played.computeIfAbsent(state.hash(), h -> new HashMap<>()).merge(move, 1, Integer::sum);
+                }
+                state.play(move);
+            }
+        }
+        List<long[]> kept = new ArrayList<>();  // {hash, count, move}
+        for (Map.Entry<Long, Map<Integer, Integer>> position : played.entrySet()) {
+            int reached = 0;
+            for (int count : position.getValue().values()) {
+                reached += count;
+            }
+            if (reached >= minCount) {
+                for (Map.Entry<Integer, Integer> move : position.getValue().entrySet()) {
+                    kept.add(new long[]{position.getKey(), move.getValue(), move.getKey()});
+                }
+            }
+        }
+        // by hash, then most played first
+        kept.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : a[1] != b[1] ? Long.compare(b[1], a[1]) : Long.compare(a[2], b[2]));
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(kept.size());
+            for (long[] entry : kept) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) Math.min(entry[1], MAX_COUNT) << 8 | (int) entry[2]);
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        return kept.size();
+    }
+
+    /**
+     * Builds a book from the command line.
+     * Usage: java OpeningBook <file> [games] [plies] [minCount] [depth]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java OpeningBook <file> [games] [plies] [minCount] [depth]");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : 12;
+        int minCount = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        int depth = args.length > 4 ? Integer.parseInt(args[4]) : 6;
+        long start = System.nanoTime();
+        int size = build(file, games, plies, minCount, depth, 2025);
+        System.out.printf("%d entries from %d games in %.1fs%n", size, games, (System.nanoTime() - start) / 1e9);
+        OpeningBook book = open(file);
+        BoardState root = BoardState.start();
+        long begin = System.nanoTime();
+        int lookups = 1_000_000;
+        int hits = 0;
+        for (int i = 0; i < lookups; i++) {
+            hits += book.lookup(root) >= 0 ? 1 : 0;
+        }
+        System.out.printf("%.0f ns per lookup, start position %s%n", (System.nanoTime() - begin) / (double) lookups, hits > 0 ? "in book" : "not in book");
+    }
+}
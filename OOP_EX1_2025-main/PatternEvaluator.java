@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * A table-driven evaluation of the 8x8 board: every pattern of squares is read as a base-3 index and looked up in a weight table.
+ * The patterns are the 4 edges, the 2 long diagonals and the 8 2x5 corner blocks (a 2x5 block on every corner in both
+ * orientations). All instances of a pattern share one table: the board is turned and mirrored into the 8 symmetric
+ * views, and every instance is read from the same squares of one of the views.
+ * A pattern is read on three planes, each digit being 0 for no disc, 1 for the player to move and 2 for the opponent:
+ * the owner of every disc, the owner of every unflippable disc and the owner of every bomb, so special discs are
+ * pattern states of their own. Each plane has its own table, and there is a set of tables for every game phase.
+ * An evaluation is a few dozen shifts and masks plus 42 table lookups, and does not allocate.
+ * The weights load from a binary file of 16-bit weights; without one, default weights are generated from the
+ * classic square weights.
+ * Usage: java PatternEvaluator <file>
+ */
+public class PatternEvaluator {
+    public static final String DEFAULT_FILE = "pattern.weights";  // the weights the game loads if the file exists
+    public static final int PHASES = 6;  // weight sets, by the number of empty squares
+    private static final int MAGIC = 0x52565057;  // "RVPW"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;  // magic, version, phases and weights per phase
+    private static final int EDGE = 0;
+    private static final int DIAGONAL = 1;
+    private static final int BLOCK = 2;
+    private static final int[] PATTERN_SIZES = {8, 8, 10};  // squares of an edge, a diagonal and a corner block
+    private static final int PLANES = 3;  // disc owners, unflippable owners, bomb owners
+    private static final int UNFLIPPABLE_WEIGHT = 15;  // default value of an unflippable disc on the board
+    private static final int[] OFFSETS = new int[PATTERN_SIZES.length * PLANES];  // start of every table within a phase
+    private static final int PHASE_WEIGHTS;  // weights per phase
+    private static final int[] TERNARY = new int[1 << 10];  // reads a bit pattern as a base-3 number of 0 and 1 digits
+
+    static {
+        int offset = 0;
+        for (int p = 0; p < PATTERN_SIZES.length; p++) {
+            for (int plane = 0; plane < PLANES; plane++) {
+                OFFSETS[p * PLANES + plane] = offset;
+                offset += pow3(PATTERN_SIZES[p]);
+            }
+        }
+        PHASE_WEIGHTS = offset;
+        for (int bits = 1; bits < TERNARY.length; bits++) {
+            int high = 31 - Integer.numberOfLeadingZeros(bits);
+            TERNARY[bits] = TERNARY[bits & ~(1 << high)] + pow3(high);
+        }
+    }
+
+    private static PatternEvaluator defaults;  // generated on first use
+    private final short[] weights;  // PHASES * PHASE_WEIGHTS weights
+
+    /**
+     * Constructor for the PatternEvaluator class.
+     * @param weights The weights of every phase, in file order.
+     */
+    private PatternEvaluator(short[] weights) {
+        this.weights = weights;
+    }
+
+    /**
+     * Evaluates a position.
+     * @param pos The position, on the 8x8 board.
+     * @return The pattern score from the point of view of the player to move.
+     */
+    public int evaluate(BoardState pos) {
+        long own = pos.discs[pos.side];
+        long opp = pos.discs[pos.side ^ 1];
+        int base = phase(pos.empties()) * PHASE_WEIGHTS;
+        int score = evaluatePlane(own, opp, base, 0);
+        if (pos.unflippables != 0) {
+            score += evaluatePlane(own & pos.unflippables, opp & pos.unflippables, base, 1);
+        }
+        if (pos.bombs != 0) {
+            score += evaluatePlane(own & pos.bombs, opp & pos.bombs, base, 2);
+        }
+        return score;
+    }
+
+    /**
+     * Adds up the weights of all pattern instances on one plane.
+     * A plane with no discs is skipped by the caller, so the empty pattern of the special planes weighs nothing.
+     * @param own The squares holding a 1 digit.
+     * @param opp The squares holding a 2 digit.
+     * @param base The start of the phase's weights.
+     * @param plane The plane.
+     * @return The sum of the weights.
+     */
+    private int evaluatePlane(long own, long opp, int base, int plane) {
+        short[] w = weights;
+        int edges = base + OFFSETS[EDGE * PLANES + plane];
+        int diagonals = base + OFFSETS[DIAGONAL * PLANES + plane];
+        int blocks = base + OFFSETS[BLOCK * PLANES + plane];
+        long ownM = mirror(own);
+        long oppM = mirror(opp);
+        long ownT = transpose(own);
+        long oppT = transpose(opp);
+        long ownTM = mirror(ownT);
+        long oppTM = mirror(oppT);
+        int score = w[edges + index(edge(own), edge(opp))]
+                + w[edges + index(edge(Long.reverseBytes(own)), edge(Long.reverseBytes(opp)))]
+                + w[edges + index(edge(ownT), edge(oppT))]
+                + w[edges + index(edge(Long.reverseBytes(ownT)), edge(Long.reverseBytes(oppT)))]
+                + w[diagonals + index(diagonal(own), diagonal(opp))]
+                + w[diagonals + index(diagonal(ownM), diagonal(oppM))]
+                + w[blocks + index(block(own), block(opp))]
+                + w[blocks + index(block(ownM), block(oppM))]
+                + w[blocks + index(block(Long.reverseBytes(own)), block(Long.reverseBytes(opp)))]
+                + w[blocks + index(block(Long.reverseBytes(ownM)), block(Long.reverseBytes(oppM)))]
+                + w[blocks + index(block(ownT), block(oppT))]
+                + w[blocks + index(block(ownTM), block(oppTM))]
+                + w[blocks + index(block(Long.reverseBytes(ownT)), block(Long.reverseBytes(oppT)))]
+                + w[blocks + index(block(Long.reverseBytes(ownTM)), block(Long.reverseBytes(oppTM)))];
+        return score;
+    }
+
+    /**
+     * Returns the weight set of a position.
+     * @param empties The number of empty squares.
+     * @return The phase, 0 for the opening up to PHASES - 1 for the last moves.
+     */
+    static int phase(int empties) {
+        return Math.min(PHASES - 1, Math.max(0, (BitBoard.SQUARES - 4 - empties) * PHASES / (BitBoard.SQUARES - 3)));
+    }
+
+    private static int index(int ownBits, int oppBits) {
+        return TERNARY[ownBits] + 2 * TERNARY[oppBits];
+    }
+
+    // the pattern squares of a view, as bits in digit order: the first row, the long diagonal and the 2x5 corner block
+    private static int edge(long x) {
+        return (int) (x & 0xFF);
+    }
+
+    private static int diagonal(long x) {
+        return (int) ((x & 0x8040201008040201L) * 0x0101010101010101L >>> 56);
+    }
+
+    private static int block(long x) {
+        return (int) (x & 0x1F | (x >>> 3) & 0x3E0);
+    }
+
+    /**
+     * Mirrors a board left to right.
+     * @param x The board.
+     * @return The mirrored board.
+     */
+    static long mirror(long x) {
+        x = x >>> 1 & 0x5555555555555555L | (x & 0x5555555555555555L) << 1;
+        x = x >>> 2 & 0x3333333333333333L | (x & 0x3333333333333333L) << 2;
+        return x >>> 4 & 0x0F0F0F0F0F0F0F0FL | (x & 0x0F0F0F0F0F0F0F0FL) << 4;
+    }
+
+    /**
+     * Mirrors a board along its long diagonal, turning rows into columns.
+     * @param x The board.
+     * @return The transposed board.
+     */
+    static long transpose(long x) {
+        long t = 0x0F0F0F0F00000000L & (x ^ x << 28);
+        x ^= t ^ t >>> 28;
+        t = 0x3333000033330000L & (x ^ x << 14);
+        x ^= t ^ t >>> 14;
+        t = 0x5500550055005500L & (x ^ x << 7);
+        return x ^ t ^ t >>> 7;
+    }
+
+    private static int pow3(int n) {
+        int p = 1;
+        for (int i = 0; i < n; i++) {
+            p *= 3;
+        }
+        return p;
+    }
+
+    /**
+     * Generates the default weights: the classic square weights and a bonus for every unflippable disc,
+     * spread over the patterns covering each square, the same in every phase. Bombs on the board weigh nothing.
+     * @return The evaluator.
+     */
+    public static PatternEvaluator createDefault() {
+        // the square of every digit of every pattern, in the unturned view
+        int[][] squares = new int[PATTERN_SIZES.length][];
+        squares[EDGE] = new int[]{0, 1, 2, 3, 4, 5, 6, 7};
+        squares[DIAGONAL] = new int[]{0, 9, 18, 27, 36, 45, 54, 63};
+        squares[BLOCK] = new int[]{0, 1, 2, 3, 4, 8, 9, 10, 11, 12};
+        // the number of pattern instances covering every square
+        int[] coverage = new int[BitBoard.SQUARES];
+        for (int sq = 0; sq < BitBoard.SQUARES; sq++) {
+            long x = 1L << sq;
+            long m = mirror(x);
+            long t = transpose(x);
+            long tm = mirror(t);
+            long[] views = {x, m, Long.reverseBytes(x), Long.reverseBytes(m), t, tm, Long.reverseBytes(t), Long.reverseBytes(tm)};
+            for (int v = 0; v < views.length; v++) {
+                coverage[sq] += block(views[v]) != 0 ? 1 : 0;
+            }
+            coverage[sq] += (edge(x) | edge(Long.reverseBytes(x))) != 0 ? 1 : 0;
+            coverage[sq] += (edge(t) | edge(Long.reverseBytes(t))) != 0 ? 1 : 0;
+            coverage[sq] += (diagonal(x) | diagonal(m)) != 0 ? 1 : 0;
+        }
+        short[] weights = new short[PHASES * PHASE_WEIGHTS];
+        for (int p = 0; p < PATTERN_SIZES.length; p++) {
+            int count = pow3(PATTERN_SIZES[p]);
+            for (int index = 0; index < count; index++) {
+                double ownership = 0;
+                double unflippable = 0;
+                for (int i = 0, rest = index; i < PATTERN_SIZES[p]; i++, rest /= 3) {
+                    int sq = squares[p][i];
+                    int sign = rest % 3 == 1 ? 1 : rest % 3 == 2 ? -1 : 0;
+                    ownership += sign * (double) SearchEngine.SQUARE_WEIGHTS[sq] / coverage[sq];
+                    unflippable += sign * (double) UNFLIPPABLE_WEIGHT / coverage[sq];
+                }
+                for (int phase = 0; phase < PHASES; phase++) {
+                    int start = phase * PHASE_WEIGHTS + OFFSETS[p * PLANES];
+                    weights[start + index] = (short) Math.round(ownership);
+                    weights[start + count + index] = (short) Math.round(unflippable);
+                }
+            }
+        }
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Returns the shared evaluator with the default weights, generating them the first time.
+     * @return The evaluator.
+     */
+    public static synchronized PatternEvaluator getDefault() {
+        if (defaults == null) {
+            defaults = createDefault();
+        }
+        return defaults;
+    }
+
+    /**
+     * Reads weights from a file.
+     * @param file The weights file.
+     * @return The evaluator.
+     * @throws IOException If the file can't be read.
+     */
+    public static PatternEvaluator load(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION
+                || buffer.getInt() != PHASES || buffer.getInt() != PHASE_WEIGHTS
+                || buffer.remaining() != PHASES * PHASE_WEIGHTS * Short.BYTES) {
+            throw new IllegalArgumentException("Not a pattern weights file: " + file);
+        }
+        short[] weights = new short[PHASES * PHASE_WEIGHTS];
+        buffer.asShortBuffer().get(weights);
+        return new PatternEvaluator(weights);
+    }
+
+    /**
+     * Writes the weights to a file.
+     * @param file The file to write; it is replaced only once the new weights are complete.
+     * @throws IOException If the file can't be written.
+     */
+    public void save(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + weights.length * Short.BYTES);
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(PHASES).putInt(PHASE_WEIGHTS);
+        buffer.asShortBuffer().put(weights);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, buffer.array());
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Writes the default weights to a file and times the evaluation.
+     * Usage: java PatternEvaluator <file>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java PatternEvaluator <file>");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        createDefault().save(file);
+        PatternEvaluator evaluator = load(file);
+        System.out.printf("%d weights in %d phases written to %s%n", evaluator.weights.length, PHASES, file);
+        BoardState pos = BoardState.start();
+        int[] moves = new int[BoardState.MAX_MOVES];
+        for (int i = 0; i < 20 && pos.generateMoves(moves) > 0; i++) {
+            pos.play(moves[0]);
+        }
+        int evaluations = 10_000_000;
+        long sum = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < evaluations; i++) {
+            sum += evaluator.evaluate(pos);
+        }
+        System.out.printf("%.1f ns per evaluation (%d)%n", (System.nanoTime() - start) / (double) evaluations, sum / evaluations);
+    }
+}
@@ -0,0 +1,238 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the positions reachable in a fixed number of moves (perft), to check a move generator against GameLogic.
+ * Every square with every disc type the player can still afford is a separate move, and a game that
+ * ends before the target depth adds nothing. GameLogic passes automatically, so a pass does not count
+ * as a move. The fast count runs on BoardState and splits the top of the tree across a ForkJoinPool;
+ * the reference count plays the same tree on a GameLogic with doMove and undoMove, so any difference
+ * between the two shows a move generator bug.
+ * Usage: java Perft <depth> [threads] [--divide] [--verify]
+ */
+public class Perft {
+    private static final int SPLIT_DEPTH = 4;  // subtrees at most this deep are counted on one thread
+
+    private Perft() {
+    }
+
+    /**
+     * Counts the leaf positions at a depth on one thread.
+     * @param state The position to count from, it is not modified.
+     * @param depth The number of moves to play.
+     * @return The number of leaf positions.
+     */
+    public static long perft(BoardState state, int depth) {
+        BoardState[] states = new BoardState[depth + 1];
+        int[][] moves = new int[depth + 1][BoardState.MAX_MOVES];
+        for (int i = 0; i <= depth; i++) {
+            states[i] = new BoardState();
+        }
+        states[depth].copyFrom(state);
+        return count(states, moves, depth);
+    }
+
+    /**
+     * Counts the leaf positions at a depth, splitting the subtrees across a pool.
+     * @param state The position to count from, it is not modified.
+     * @param depth The number of moves to play.
+     * @param pool The pool to run on.
+     * @return The number of leaf positions.
+     */
+    public static long perft(BoardState state, int depth, ForkJoinPool pool) {
+        BoardState copy = new BoardState();
+        copy.copyFrom(state);
+        return pool.invoke(new Split(copy, depth));
+    }
+
+    /**
+     * Counts the leaf positions below every root move.
+     * @param state The position to count from, it is not modified.
+     * @param depth The number of moves to play, at least 1.
+     * @param pool The pool to run on.
+     * @param moves Receives the root moves.
+     * @param counts Receives the leaf count below every root move.
+     * @return The number of root moves.
+     */
+    public static int divide(BoardState state, int depth, ForkJoinPool pool, int[] moves, long[] counts) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Divide needs a depth of at least 1: " + depth);
+        }
+        int n = state.generateMoves(moves);
+        Split[] tasks = new Split[n];
+        for (int i = 0; i < n; i++) {
+            BoardState child = new BoardState();
+            child.copyFrom(state);
+            child.play(moves[i]);
+            tasks[i] = new Split(child, moves[i] == BoardState.PASS ? depth : depth - 1);
+        }
+        pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(tasks)));
+        for (int i = 0; i < n; i++) {
+            counts[i] = tasks[i].join();
+        }
+        return n;
+    }
+
+    /**
+     * Counts the leaf positions at a depth by playing them on a GameLogic.
+     * @param game The game to count from, it is left as it was.
+     * @param depth The number of moves to play.
+     * @return The number of leaf positions.
+     */
+    public static long reference(GameLogic game, int depth) {
+        if (depth == 0) {
+            return 1;
+        }
+        Player mover = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+        long nodes = 0;
+        for (Position p : List.copyOf(game.ValidMoves())) {
+            for (Disc disc : new Disc[]{new SimpleDisc(mover), new UnflippableDisc(mover), new BombDisc(mover)}) {
+                if (game.doMove(p, disc)) {
+                    nodes += reference(game, depth - 1);
+                    game.undoMove();
+                }
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * The counting recursion with bulk counting at the last move.
+     * @param states Scratch states, states[depth] holds the position.
+     * @param moves Scratch move buffers, one per depth.
+     * @param depth The number of moves to play.
+     * @return The number of leaf positions.
+     */
+    private static long count(BoardState[] states, int[][] moves, int depth) {
+        BoardState state = states[depth];
+        if (depth == 0) {
+            return 1;
+        }
+        if (depth == 1 && state.legalSquares() != 0) {
+            // every legal square is one move per disc type the player can afford
+            int types = 1 + (state.unflippablesLeft[state.side] > 0 ? 1 : 0) + (state.bombsLeft[state.side] > 0 ? 1 : 0);
+            return (long) Long.bitCount(state.legalSquares()) * types;
+        }
+        int n = state.generateMoves(moves[depth]);
+        if (n == 1 && moves[depth][0] == BoardState.PASS) {
+            state.play(BoardState.PASS);  // the pass uses up no depth, and playing it again takes it back
+            long nodes = count(states, moves, depth);
+            state.play(BoardState.PASS);
+            return nodes;
+        }
+        long nodes = 0;
+        for (int i = 0; i < n; i++) {
+            states[depth - 1].copyFrom(state);
+            states[depth - 1].play(moves[depth][i]);
+            nodes += count(states, moves, depth - 1);
+        }
+        return nodes;
+    }
+
+    /**
+     * A subtree count that forks its children while the subtree is deep.
+     */
+    private static final class Split extends RecursiveTask<Long> {
+        private final BoardState state;
+        private final int depth;
+
+        Split(BoardState state, int depth) {
+            this.state = state;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            if (depth <= SPLIT_DEPTH) {
+                return perft(state, depth);
+            }
+            int[] moves = new int[BoardState.MAX_MOVES];
+            int n = state.generateMoves(moves);
+            Split[] tasks = new Split[n];
+            for (int i = 0; i < n; i++) {
+                BoardState child = new BoardState();
+                child.copyFrom(state);
+                child.play(moves[i]);
+                tasks[i] = new Split(child, moves[i] == BoardState.PASS ? depth : depth - 1);
+            }
+            invokeAll(tasks);
+            long nodes = 0;
+            for (Split task : tasks) {
+                nodes += task.join();
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Runs perft from the starting position.
+     * Usage: java Perft <depth> [threads] [--divide] [--verify]
+     * --divide prints the count below every root move, --verify also counts every depth up to the
+     * given one with GameLogic and reports the first mismatch.
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.out.println("Usage: java Perft <depth> [threads] [--divide] [--verify]");
+            return;
+        }
+        int depth = Integer.parseInt(args[0]);
+        int threads = Runtime.getRuntime().availableProcessors();
+        boolean divide = false;
+        boolean verify = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--divide" -> divide = true;
+                case "--verify" -> verify = true;
+                default -> threads = Integer.parseInt(args[i]);
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        BoardState start = BoardState.start();
+        try {
+            for (int d = verify ? 1 : depth; d <= depth; d++) {
+                long begin = System.nanoTime();
+                long nodes;
+                if (divide && d == depth) {
+                    int[] moves = new int[BoardState.MAX_MOVES];
+                    long[] counts = new long[BoardState.MAX_MOVES];
+                    int n = divide(start, depth, pool, moves, counts);
+                    nodes = 0;
+                    String[] types = {"⬤", "⭕", "💣"};
+                    for (int i = 0; i < n; i++) {
+                        int sq = BoardState.square(moves[i]);
+                        System.out.printf("%s (%d, %d): %d%n", types[BoardState.type(moves[i])], sq / BitBoard.SIZE, sq % BitBoard.SIZE, counts[i]);
+                        nodes += counts[i];
+                    }
+                } else {
+                    nodes = perft(start, d, pool);
+                }
+                long elapsed = System.nanoTime() - begin;
+                System.out.printf("perft(%d) = %d in %.3fs, %.0f nodes/s on %d threads%n", d, nodes, elapsed / 1e9, nodes * 1e9 / elapsed, threads);
+                if (verify) {
+                    long expected = referenceFromStart(d);
+                    if (expected != nodes) {
+                        System.out.println("MISMATCH: GameLogic counts " + expected);
+                        return;
+                    }
+                    System.out.println("  matches GameLogic");
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the leaf positions from the starting position with GameLogic.
+     * @param depth The number of moves to play.
+     * @return The number of leaf positions.
+     */
+    private static long referenceFromStart(int depth) {
+        GameLogic game = new GameLogic();
+        game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+        game.reset();
+        return reference(game, depth);
+    }
+}
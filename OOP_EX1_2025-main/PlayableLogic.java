@@ -46,6 +46,63 @@ public interface PlayableLogic {
      */
     int countFlips(Position a);
 
+    /**
+     * The number of discs that will be flipped on every square of the board, computed in one pass.
+     *
+     * @return An array of getBoardSize() * getBoardSize() counts indexed by row * getBoardSize() + col,
+     *         holding 0 for every square that is not a valid move for the current player.
+     */
+    default int[] flipCounts() {
+        int size = getBoardSize();
+        int[] counts = new int[size * size];
+        for (Position p : ValidMoves()) {
+            counts[p.row() * size + p.col()] = countFlips(p);
+        }
+        return counts;
+    }
+
+    /**
+     * The flip counts of flipCounts(), written into an array of the caller's, so a caller that asks on every turn
+     * can reuse one array.
+     *
+     * @param counts An array of at least getBoardSize() * getBoardSize() counts, which is overwritten.
+     * @return counts.
+     */
+    default int[] flipCounts(int[] counts) {
+        int[] fresh = flipCounts();
+        System.arraycopy(fresh, 0, counts, 0, fresh.length);
+        return counts;
+    }
+
+    /**
+     * Get what is on a square as a number, without creating a Disc.
+     *
+     * @param position The position to look at.
+     * @return 0 for an empty square, else 1 for a simple disc, 2 for an unflippable disc and 3 for a bomb,
+     *         plus 3 if the disc is the second player's.
+     */
+    default int discCode(Position position) {
+        Disc disc = getDiscAtPosition(position);
+        if (disc == null) {
+            return 0;
+        }
+        int code = switch (disc.getType()) {
+            case "💣" -> 3;
+            case "⭕" -> 2;
+            default -> 1;
+        };
+        return disc.getOwner().isPlayerOne() ? code : code + 3;
+    }
+
+    /**
+     * Create an independent copy of the game - board, turn, special discs left and undo history - that can be played on
+     * without changing this game. The copy has stand-in players of its own, so spending special discs on it does not
+     * touch this game's players, and it reports no events. A search thread can fork the live game once and explore it freely.
+     *
+     * @return The copy.
+     */
+    PlayableLogic fork();
+
     /**
      * Get the first player.
      *
@@ -83,6 +140,21 @@ public interface PlayableLogic {
      */
     boolean isGameFinished();
 
+    /**
+     * Report where the game stands - both players' mobility, a pass or the end of the game, and the disc counts -
+     * without recording a result or changing anything else.
+     *
+     * @return The status of the game.
+     */
+    GameStatus status();
+
+    /**
+     * Record the result of a finished game, counting the win of the player with more discs.
+     *
+     * @throws IllegalStateException if the game is not over.
+     */
+    void recordResult();
+
     /**
      * Reset the game to its initial state, clearing the board and player information.
      */
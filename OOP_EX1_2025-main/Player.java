@@ -61,4 +61,24 @@ public abstract class Player {
         this.number_of_unflippedable = initial_number_of_unflippedable;
     }
 
+    /**
+     * Creates a stand-in for this player in a forked game: the same side, the same kind (human or not) and the same
+     * special discs left. The forked game spends the stand-in's discs, so this player is never touched.
+     *
+     * @return The stand-in.
+     */
+    Player fork() {
+        boolean human = isHuman();
+        Player copy = new Player(isPlayerOne) {
+            @Override
+            boolean isHuman() {
+                return human;
+            }
+        };
+        copy.number_of_bombs = number_of_bombs;
+        copy.number_of_unflippedable = number_of_unflippedable;
+        copy.wins = wins;
+        return copy;
+    }
+
 }
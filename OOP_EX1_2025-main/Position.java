@@ -13,4 +13,26 @@ public class Position {
     public int col() {
        return col;
     }
+
+    /**
+     * Two positions are equal when they point at the same square.
+     * @param o The object to compare with.
+     * @return true if o is a position with the same row and column.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof Position)) {
+            return false;
+        }
+        Position p = (Position) o;
+        return row == p.row && col == p.col;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * row + col;
+    }
 }
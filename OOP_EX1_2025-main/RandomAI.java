@@ -3,7 +3,6 @@ import java.util.List;
 import java.util.Random;
 
 public class RandomAI extends AIPlayer {
-    private final boolean player;
 
     /**
      * Constructor for the RandomAI class.
@@ -12,7 +11,6 @@ public class RandomAI extends AIPlayer {
      */
     public RandomAI(boolean isPlayerOne) {
         super(isPlayerOne);
-        player = isPlayerOne;
     }
 
     /**
@@ -24,7 +22,7 @@ public class RandomAI extends AIPlayer {
     public Move makeMove(PlayableLogic gameStatus) {
         Player p;
         // Chooses the current player (player1 or player2)
-        if (player) {
+        if (isPlayerOne) {
             p = gameStatus.getFirstPlayer();
         } else {
             p = gameStatus.getSecondPlayer();
@@ -0,0 +1,691 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A negamax alpha-beta search over BoardState copies.
+ * It runs iterative deepening with aspiration windows, principal-variation search at every node and
+ * transposition-table, killer and history move ordering. The search stops at the depth limit or when the node budget
+ * runs out, whichever comes first, and keeps the best move of the last completed iteration.
+ * With more than one thread the engine runs Lazy SMP: helper workers on a ForkJoinPool search the same root
+ * with their own move order and depth offset, sharing only the lock-free transposition table,
+ * while the calling thread's worker decides the move.
+ * All buffers are allocated once, so a search does not allocate per node.
+ */
+public class SearchEngine {
+    static final int INFINITY = 1_000_000;
+    static final int WIN = 100_000;  // score of a won game, before adding the final disc difference
+    static final int MAX_PLY = 64;  // deeper than any game can last
+    static final int DEFAULT_HASH_MB = 16;  // transposition table size used unless configured
+    private static final int ASPIRATION_WINDOW = 40;  // half width of the first window around the previous score
+    // classic positional square weights: corners are good, the squares next to them are bad; they order moves and seed the default pattern weights
+    static final int[] SQUARE_WEIGHTS = {
+            100, -20, 10, 5, 5, 10, -20, 100,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            5, -2, -1, -1, -1, -1, -2, 5,
+            10, -2, -1, -1, -1, -1, -2, 10,
+            -20, -50, -2, -2, -2, -2, -50, -20,
+            100, -20, 10, 5, 5, 10, -20, 100};
+
+    private PatternEvaluator evaluator;  // scores the discs on the board at the leaves
+    private TranspositionTable table;  // results of earlier searched positions, shared by all workers and kept between moves
+    private int hashSizeMB;  // the size of the table, which is only allocated by the first search
+    private int maxDepth;  // iterative deepening stops after this depth
+    private long nodeBudget;  // the search stops after this many nodes, 0 for no limit
+    private Worker[] workers;  // workers[0] runs in the calling thread, the others are helpers
+    private ForkJoinPool pool;  // runs the helper workers, null with a single thread
+    private volatile boolean stopped;  // tells every worker to abandon the search
+    private volatile boolean stopRequested;  // set by stop, stops every search until clearStop
+    private final AtomicLong sharedNodes;  // nodes of all workers, for the node budget
+    private long nodes;
+    private long elapsedNanos;
+    private int completedDepth;
+    private int bestScore;
+
+    /**
+     * Constructor for the SearchEngine class.
+     * Sets up a single worker and a 16 MB transposition table, allocated by the first search, and sets a default depth of 6 with no node budget.
+     */
+    public SearchEngine() {
+        this(DEFAULT_HASH_MB);
+    }
+
+    /**
+     * Constructor for the SearchEngine class with a transposition table of a given size.
+     * @param hashSizeMB The size of the transposition table in megabytes.
+     */
+    public SearchEngine(int hashSizeMB) {
+        setHashSize(hashSizeMB);
+        sharedNodes = new AtomicLong();
+        workers = new Worker[]{new Worker(0)};
+        maxDepth = 6;
+        evaluator = PatternEvaluator.getDefault();
+    }
+
+    /**
+     * Sets the pattern weights the leaves are evaluated with.
+     * @param evaluator The evaluator, or null for the default weights.
+     */
+    public void setEvaluator(PatternEvaluator evaluator) {
+        this.evaluator = evaluator != null ? evaluator : PatternEvaluator.getDefault();
+    }
+
+    /**
+     * Sets the deepest iteration of the search.
+     * @param maxDepth The depth limit in plies, between 1 and MAX_PLY - 1.
+     */
+    public void setMaxDepth(int maxDepth) {
+        if (maxDepth < 1 || maxDepth >= MAX_PLY) {
+            throw new IllegalArgumentException("Depth must be between 1 and " + (MAX_PLY - 1) + ": " + maxDepth);
+        }
+        this.maxDepth = maxDepth;
+    }
+
+    /**
+     * Sets the number of nodes after which the search stops, counted over all threads.
+     * @param nodeBudget The node limit, 0 for no limit.
+     */
+    public void setNodeBudget(long nodeBudget) {
+        if (nodeBudget < 0) {
+            throw new IllegalArgumentException("Node budget can't be negative: " + nodeBudget);
+        }
+        this.nodeBudget = nodeBudget;
+    }
+
+    /**
+     * Replaces the transposition table with an empty one of a new size.
+     * The memory is taken by the next search, so an engine that never searches holds no table.
+     * @param hashSizeMB The size of the table in megabytes.
+     */
+    public void setHashSize(int hashSizeMB) {
+        if (hashSizeMB < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + hashSizeMB);
+        }
+        this.hashSizeMB = hashSizeMB;
+        table = null;
+    }
+
+    /**
+     * Returns the transposition table, allocating it on first use.
+     * @return The table.
+     */
+    private TranspositionTable table() {
+        if (table == null) {
+            table = new TranspositionTable(hashSizeMB);
+        }
+        return table;
+    }
+
+    /**
+     * Sets the number of threads searching every move.
+     * @param threads 1 for a plain single-threaded search, more to add Lazy SMP helpers.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threads);
+        }
+        if (pool != null) {
+            pool.shutdown();
+            pool = null;
+        }
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        if (threads > 1) {
+            pool = new ForkJoinPool(threads - 1);
+        }
+    }
+
+    /**
+     * Stops the running search, from any thread.
+     * The search returns the best move of its last completed iteration, as if the depth limit was reached.
+     * The request stays until clearStop, so a search that had not started yet when it came stops at once.
+     */
+    public void stop() {
+        stopRequested = true;
+        stopped = true;
+    }
+
+    /**
+     * Withdraws a stop request, so that the next search runs in full.
+     * Call it from the thread that starts the search, before that thread checks whether it was cancelled.
+     */
+    public void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Returns the number of threads searching every move.
+     * @return The thread count.
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Searches a position and returns the best move found.
+     * @param root The position to search, it is not modified.
+     * @return The best encoded move, or -1 if the player to move has no valid move.
+     */
+    public int search(BoardState root) {
+        table().newSearch();
+        return search(root, maxDepth);
+    }
+
+    /**
+     * Searches the positions after the opponent's likely replies, so that the move after the reply that is
+     * actually played is found at once by ponderHit.
+     * A shallow search of the opponent's position ranks the replies, and then the position after every reply,
+     * the predicted one first, is searched to the full depth and its result kept in the transposition table,
+     * until all the replies are done or stop is called.
+     * @param root The position to search, with the opponent to move, it is not modified.
+     * @return The reply the shallow search predicts, or -1 if the opponent has no valid move.
+     */
+    public int ponder(BoardState root) {
+        table().newSearch();  // once, so the results of the earlier replies are not replaced by the later ones
+        int predicted = search(root, Math.max(1, maxDepth - 1));
+        if (predicted < 0) {
+            return -1;
+        }
+        // the main worker's root moves, with the best move of every iteration moved to the front, rank the replies
+        int[] replies = workers[0].moves[0].clone();
+        int n = root.generateMoves(new int[BoardState.MAX_MOVES]);
+        BoardState child = new BoardState();
+        for (int i = 0; i < n && !stopRequested; i++) {
+            child.copyFrom(root);
+            child.play(replies[i]);
+            int best = search(child, maxDepth);
+            if (best >= 0 && completedDepth >= maxDepth && !stopRequested) {
+                table.store(child.hash, best, completedDepth, TranspositionTable.EXACT, bestScore);
+            }
+        }
+        return predicted;
+    }
+
+    /**
+     * Looks for a full-depth result of a position in the transposition table, as left there by pondering.
+     * @param root The position to move in.
+     * @return The encoded move of an exact entry at least as deep as the depth limit, or -1 if there is none.
+     */
+    public int ponderHit(BoardState root) {
+        if (table == null) {
+            return -1;
+        }
+        long entry = table.probe(root.hash);
+        if (entry == 0 || TranspositionTable.bound(entry) != TranspositionTable.EXACT || TranspositionTable.depth(entry) < maxDepth) {
+            return -1;
+        }
+        int move = TranspositionTable.move(entry);
+        int[] list = workers[0].moves[0];
+        int n = root.generateMoves(list);
+        for (int i = 0; i < n; i++) {
+            if (list[i] == move && move != BoardState.PASS) {
+                nodes = 0;
+                completedDepth = TranspositionTable.depth(entry);
+                bestScore = TranspositionTable.score(entry);
+                elapsedNanos = 0;
+                return move;
+            }
+        }
+        return -1;  // a different position with the same key
+    }
+
+    /**
+     * Searches a position with iterative deepening on every worker, in the current transposition table generation.
+     * @param root The position to search, it is not modified.
+     * @param depthLimit The deepest iteration.
+     * @return The best encoded move, or -1 if the player to move has no valid move.
+     */
+    private int search(BoardState root, int depthLimit) {
+        long start = System.nanoTime();
+        stopped = stopRequested;  // a stop that came before the search still stops it
+        sharedNodes.set(0);
+        ForkJoinTask<?>[] helpers = new ForkJoinTask<?>[workers.length - 1];
+        for (int i = 1; i < workers.length; i++) {
+            Worker helper = workers[i];
+            helpers[i - 1] = pool.submit(() -> helper.iterate(root, depthLimit));
+        }
+        Worker main = workers[0];
+        int best = main.iterate(root, depthLimit);
+        stopped = true;  // the main worker decided, so the helpers can stop
+        nodes = main.nodes;
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i].join();
+            nodes += workers[i + 1].nodes;
+        }
+        completedDepth = main.completedDepth;
+        bestScore = main.bestScore;
+        elapsedNanos = System.nanoTime() - start;
+        return best;
+    }
+
+    /**
+     * The per-thread search state: its own position stack, move buffers, killers and history.
+     */
+    private final class Worker {
+        private final int id;  // 0 for the main worker, 1 and up for helpers
+        private final BoardState[] stack;  // the position at every ply of the current line
+        private final int[][] moves;  // generated moves at every ply
+        private final int[][] orderScores;  // move ordering scores matching the moves
+        private final int[][] killers;  // two quiet moves per ply that caused a cutoff
+        private final int[] history;  // cutoff history of every encoded move
+        private boolean aborted;  // set when the search was stopped in the middle of an iteration
+        private int rootBest;  // best root move of the current iteration
+        private long nodes;
+        private int completedDepth;
+        private int bestScore;
+
+        Worker(int id) {
+            this.id = id;
+            stack = new BoardState[MAX_PLY + 1];
+            for (int i = 0; i < stack.length; i++) {
+                stack[i] = new BoardState();
+            }
+            moves = new int[MAX_PLY + 1][BoardState.MAX_MOVES];
+            orderScores = new int[MAX_PLY + 1][BoardState.MAX_MOVES];
+            killers = new int[MAX_PLY + 1][2];
+            history = new int[BoardState.MAX_MOVES];
+        }
+
+        /**
+         * Runs iterative deepening on the root until the depth limit or a stop.
+         * Helpers start one ply deeper every other thread and rotate the root moves, so they fill the table
+         * with different parts of the tree than the main worker.
+         * @param root The position to search.
+         * @param depthLimit The deepest iteration.
+         * @return The best move of the last completed iteration, or -1 if there is no valid move.
+         */
+        int iterate(BoardState root, int depthLimit) {
+            nodes = 0;
+            aborted = false;
+            completedDepth = 0;
+            stack[0].copyFrom(root);
+            int n = stack[0].generateMoves(moves[0]);
+            if (n == 0 || moves[0][0] == BoardState.PASS) {
+                return -1;
+            }
+            if (id > 0) {
+                rotate(moves[0], n, id % n);
+            }
+            for (int[] k : killers) {
+                k[0] = -1;
+                k[1] = -1;
+            }
+            for (int i = 0; i < history.length; i++) {
+                history[i] >>= 1;  // keep some of the old history, but let the new search dominate
+            }
+            int best = moves[0][0];
+            int score = 0;
+            for (int depth = 1 + (id & 1); depth <= depthLimit; depth++) {
+                int alpha = -INFINITY;
+                int beta = INFINITY;
+                if (depth >= 3) {
+                    alpha = score - ASPIRATION_WINDOW;
+                    beta = score + ASPIRATION_WINDOW;
+                }
+                int result;
+                while (true) {
+                    result = searchRoot(n, depth, alpha, beta);
+                    if (aborted) {
+                        break;
+                    }
+                    // re-search with an open bound on the side that failed
+                    if (result <= alpha) {
+                        alpha = -INFINITY;
+                    } else if (result >= beta) {
+                        beta = INFINITY;
+                    } else {
+                        break;
+                    }
+                }
+                if (aborted) {
+                    break;
+                }
+                best = rootBest;
+                score = result;
+                completedDepth = depth;
+                moveToFront(moves[0], n, best);
+                if (Math.abs(score) >= WIN) {
+                    break;  // the game ends inside the horizon, a deeper search can't change the result
+                }
+            }
+            bestScore = score;
+            return best;
+        }
+
+        /**
+         * Searches every root move with principal-variation search.
+         * @param n The number of root moves.
+         * @param depth The depth of this iteration.
+         * @param alpha The lower bound of the window.
+         * @param beta The upper bound of the window.
+         * @return The score of the best root move.
+         */
+        private int searchRoot(int n, int depth, int alpha, int beta) {
+            int best = -INFINITY;
+            for (int i = 0; i < n; i++) {
+                int move = moves[0][i];
+                stack[1].copyFrom(stack[0]);
+                stack[1].play(move);
+                int score;
+                if (i == 0) {
+                    score = -negamax(1, depth - 1, -beta, -alpha);
+                } else {
+                    score = -negamax(1, depth - 1, -alpha - 1, -alpha);
+                    if (score > alpha && score < beta) {
+                        score = -negamax(1, depth - 1, -beta, -alpha);
+                    }
+                }
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    rootBest = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * The recursive negamax search with principal-variation windows.
+         * @param ply The distance from the root.
+         * @param depth The remaining depth.
+         * @param alpha The lower bound of the window.
+         * @param beta The upper bound of the window.
+         * @return The score of the position from the point of view of the player to move.
+         */
+        private int negamax(int ply, int depth, int alpha, int beta) {
+            if ((++nodes & 1023) == 0 && nodeBudget > 0 && sharedNodes.addAndGet(1024) >= nodeBudget) {
+                stopped = true;
+            }
+            if (stopped) {
+                aborted = true;
+                return 0;
+            }
+            BoardState pos = stack[ply];
+            if (depth == 0) {
+                return evaluate(pos);
+            }
+            int ttMove = -1;
+            long entry = table.probe(pos.hash);
+            if (entry != 0) {
+                ttMove = TranspositionTable.move(entry);
+                if (TranspositionTable.depth(entry) >= depth) {
+                    int ttScore = TranspositionTable.score(entry);
+                    int bound = TranspositionTable.bound(entry);
+                    if (bound == TranspositionTable.EXACT
+                            || (bound == TranspositionTable.LOWER && ttScore >= beta)
+                            || (bound == TranspositionTable.UPPER && ttScore <= alpha)) {
+                        return ttScore;
+                    }
+                }
+            }
+            int[] list = moves[ply];
+            int n = pos.generateMoves(list);
+            if (n == 0) {
+                return finalScore(pos);
+            }
+            scoreMoves(ply, n, ttMove);
+            int alphaStart = alpha;
+            int best = -INFINITY;
+            int bestMove = -1;
+            for (int i = 0; i < n; i++) {
+                int move = pickNext(ply, i, n);
+                BoardState child = stack[ply + 1];
+                child.copyFrom(pos);
+                child.play(move);
+                int score;
+                if (i == 0) {
+                    score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+                } else {
+                    score = -negamax(ply + 1, depth - 1, -alpha - 1, -alpha);
+                    if (score > alpha && score < beta) {
+                        score = -negamax(ply + 1, depth - 1, -beta, -alpha);
+                    }
+                }
+                if (aborted) {
+                    return 0;
+                }
+                if (score > best) {
+                    best = score;
+                    bestMove = move;
+                    if (score > alpha) {
+                        alpha = score;
+                        if (alpha >= beta) {
+                            storeCutoff(ply, depth, move);
+                            break;
+                        }
+                    }
+                }
+            }
+            int bound = best >= beta ? TranspositionTable.LOWER : best > alphaStart ? TranspositionTable.EXACT : TranspositionTable.UPPER;
+            table.store(pos.hash, bestMove, depth, bound, best);
+            return best;
+        }
+
+        /**
+         * Gives every generated move of a ply its ordering score: the table move first, then killers,
+         * then history and square weight.
+         * @param ply The ply of the moves.
+         * @param n The number of moves.
+         * @param ttMove The best move stored in the transposition table, or -1.
+         */
+        private void scoreMoves(int ply, int n, int ttMove) {
+            int[] list = moves[ply];
+            int[] scores = orderScores[ply];
+            for (int i = 0; i < n; i++) {
+                int move = list[i];
+                if (move == ttMove) {
+                    scores[i] = Integer.MAX_VALUE;
+                } else if (move == killers[ply][0]) {
+                    scores[i] = 1 << 30;
+                } else if (move == killers[ply][1]) {
+                    scores[i] = 1 << 29;
+                } else {
+                    scores[i] = history[move] + SQUARE_WEIGHTS[BoardState.square(move)];
+                }
+            }
+        }
+
+        /**
+         * Selects the best scored move among the ones not tried yet and swaps it into place.
+         * @param ply The ply of the moves.
+         * @param i The index to fill.
+         * @param n The number of moves.
+         * @return The move to try next.
+         */
+        private int pickNext(int ply, int i, int n) {
+            int[] list = moves[ply];
+            int[] scores = orderScores[ply];
+            int bestIndex = i;
+            for (int j = i + 1; j < n; j++) {
+                if (scores[j] > scores[bestIndex]) {
+                    bestIndex = j;
+                }
+            }
+            int move = list[bestIndex];
+            list[bestIndex] = list[i];
+            list[i] = move;
+            int score = scores[bestIndex];
+            scores[bestIndex] = scores[i];
+            scores[i] = score;
+            return move;
+        }
+
+        /**
+         * Remembers a move that caused a beta cutoff as a killer and in the history table.
+         * @param ply The ply of the cutoff.
+         * @param depth The remaining depth at the cutoff.
+         * @param move The move that caused it.
+         */
+        private void storeCutoff(int ply, int depth, int move) {
+            if (killers[ply][0] != move) {
+                killers[ply][1] = killers[ply][0];
+                killers[ply][0] = move;
+            }
+            history[move] += depth * depth;
+        }
+    }
+
+    /**
+     * Moves a move to the front of a list, keeping the order of the others.
+     * @param list The moves.
+     * @param n The number of moves in use.
+     * @param move The move to put first.
+     */
+    private static void moveToFront(int[] list, int n, int move) {
+        for (int i = 0; i < n; i++) {
+            if (list[i] == move) {
+                System.arraycopy(list, 0, list, 1, i);
+                list[0] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Rotates a list of moves to the left.
+     * @param list The moves.
+     * @param n The number of moves in use.
+     * @param k How many places to rotate.
+     */
+    private static void rotate(int[] list, int n, int k) {
+        for (int r = 0; r < k; r++) {
+            int first = list[0];
+            System.arraycopy(list, 1, list, 0, n - 1);
+            list[n - 1] = first;
+        }
+    }
+
+    /**
+     * Scores a finished game: a win or a loss outweighs any evaluation, and the disc difference breaks ties.
+     * @param pos The final position.
+     * @return The score from the point of view of the player to move.
+     */
+    static int finalScore(BoardState pos) {
+        int diff = pos.discDifference();
+        if (diff > 0) {
+            return WIN + diff;
+        }
+        if (diff < 0) {
+            return -WIN + diff;
+        }
+        return 0;
+    }
+
+    /**
+     * A static evaluation: the pattern score of the discs on the board, mobility and the special discs left.
+     * @param pos The position to evaluate.
+     * @return The score from the point of view of the player to move.
+     */
+    int evaluate(BoardState pos) {
+        long own = pos.discs[pos.side];
+        long opp = pos.discs[pos.side ^ 1];
+        int score = evaluator.evaluate(pos);
+        int ownMobility = Long.bitCount(BitBoard.legalMoves(own, opp, pos.bombs, pos.unflippables));
+        int oppMobility = Long.bitCount(BitBoard.legalMoves(opp, own, pos.bombs, pos.unflippables));
+        score += 8 * (ownMobility - oppMobility);
+        score += 10 * (pos.bombsLeft[pos.side] - pos.bombsLeft[pos.side ^ 1]);
+        score += 10 * (pos.unflippablesLeft[pos.side] - pos.unflippablesLeft[pos.side ^ 1]);
+        return score;
+    }
+
+    /**
+     * Returns the nodes visited by the last search.
+     * @return The node count.
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Returns the speed of the last search.
+     * @return Nodes searched per second.
+     */
+    public double getNodesPerSecond() {
+        return elapsedNanos == 0 ? 0 : nodes * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Returns the deepest iteration the last search completed.
+     * @return The completed depth in plies.
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Returns the score of the last search's best move.
+     * @return The score from the point of view of the player who was to move.
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Returns the duration of the last search.
+     * @return The time spent in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Measures the Lazy SMP speedup: how much faster a search reaches a given depth with several threads than with one.
+     * Both searches start from an empty transposition table of the same size.
+     * @param root The position to search.
+     * @param depth The depth both searches must complete.
+     * @param threads The thread count to compare with a single thread.
+     * @param hashSizeMB The transposition table size of both searches.
+     * @return The single-thread time divided by the multi-thread time.
+     */
+    public static double measureSpeedup(BoardState root, int depth, int threads, int hashSizeMB) {
+        SearchEngine single = new SearchEngine(hashSizeMB);
+        single.setMaxDepth(depth);
+        single.search(root);
+        SearchEngine parallel = new SearchEngine(hashSizeMB);
+        parallel.setMaxDepth(depth);
+        parallel.setThreads(threads);
+        parallel.search(root);
+        parallel.setThreads(1);  // shuts the helper pool down
+        return (double) single.getElapsedNanos() / parallel.getElapsedNanos();
+    }
+
+    /**
+     * Prints the time-to-depth speedup of Lazy SMP on a few positions.
+     * Usage: java SearchEngine [depth] [threads] [hashMB]
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashSizeMB = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int[] moves = new int[BoardState.MAX_MOVES];
+        BoardState pos = BoardState.start();
+        double logSum = 0;
+        int samples = 0;
+        for (int ply = 0; ply <= 24; ply++) {
+            if (ply % 8 == 0) {
+                double speedup = measureSpeedup(pos, depth, threads, hashSizeMB);
+                System.out.printf("ply %2d: %d threads reach depth %d %.2fx faster than 1 thread%n", ply, threads, depth, speedup);
+                logSum += Math.log(speedup);
+                samples++;
+            }
+            int n = pos.generateMoves(moves);
+            if (n == 0) {
+                break;
+            }
+            pos.play(moves[(ply * 7) % n]);  // a fixed, varied line of play
+        }
+        System.out.printf("geometric mean speedup: %.2fx%n", Math.exp(logSum / samples));
+    }
+}
@@ -0,0 +1,296 @@
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Generates training data by playing two registered AI players against each other on 8x8 boards.
+ * Worker threads play the games, alternating which AI plays first, and hand every finished game to the writer
+ * through a bounded queue: when the writer falls behind, the workers wait, so memory use does not grow with the
+ * number of games. The writer streams the games into gzip-compressed shard files of a fixed number of games.
+ * A shard is written under a temporary name and renamed once complete, so a killed run leaves only complete shards
+ * behind, and running it again continues after the last one, up to the total number of games asked for.
+ * A shard starts with a 4-byte magic, a 4-byte version and the 4-byte number of games it holds, followed by its games. A game is the number of moves,
+ * one record per move - the discs of player 1 and player 2, the bombs and the unflippables as 8-byte masks, one byte
+ * for the player to move, one byte with both players' remaining special discs and the encoded move with its disc type -
+ * and finally the signed final disc difference of player 1 minus player 2.
+ * Usage: java SelfPlayGenerator <ai1> <ai2> <games> <directory> [gamesPerShard] [threads]
+ */
+public class SelfPlayGenerator {
+    private static final int MAGIC = 0x52565350;  // "RVSP"
+    private static final int VERSION = 1;
+    private static final String SHARD_PREFIX = "shard-";
+    private static final String SHARD_SUFFIX = ".bin.gz";
+    private static final int QUEUE_GAMES_PER_THREAD = 4;  // finished games that may wait for the writer, per worker
+    private static final byte[] FAILED = new byte[0];  // queued by a worker whose game failed
+    private static final int HASH_MB = 256;  // the transposition table memory of all the searching AIs together
+    private final String firstAI;
+    private final String secondAI;
+    private final int games;
+    private final int threads;
+    private final Path directory;
+    private final int gamesPerShard;
+    // every worker thread reuses one instance of each AI: [0] is the first AI, [1] the second, colors are set per game
+    private final ThreadLocal<AIPlayer[]> players;
+
+    /**
+     * Constructor for the SelfPlayGenerator class.
+     * @param firstAI The registered name of the first AI.
+     * @param secondAI The registered name of the second AI.
+     * @param games The total number of games, including those in shards of an earlier run.
+     * @param threads The number of games played at the same time.
+     * @param directory Where the shards are written.
+     * @param gamesPerShard The number of games in every shard but the last.
+     */
+    public SelfPlayGenerator(String firstAI, String secondAI, int games, int threads, Path directory, int gamesPerShard) {
+        if (!AIPlayer.getAIPlayerTypes().contains(firstAI) || !AIPlayer.getAIPlayerTypes().contains(secondAI)) {
+            throw new IllegalArgumentException("Unknown AI player type, choose from " + AIPlayer.getAIPlayerTypes());
+        }
+        if (games < 1 || threads < 1 || gamesPerShard < 1) {
+            throw new IllegalArgumentException("Games, threads and games per shard must be positive");
+        }
+        this.firstAI = firstAI;
+        this.secondAI = secondAI;
+        this.games = games;
+        this.threads = threads;
+        this.directory = directory;
+        this.gamesPerShard = gamesPerShard;
+        // the tables are shared out over the instances, so more threads don't take more memory
+        int hashSizeMB = Math.max(1, Math.min(SearchEngine.DEFAULT_HASH_MB, HASH_MB / (2 * threads)));
+        players = ThreadLocal.withInitial(() -> new AIPlayer[]{
+                createAIPlayer(firstAI, hashSizeMB), createAIPlayer(secondAI, hashSizeMB)});
+    }
+
+    /**
+     * Creates an AI player for the generator, with a transposition table of the generator's share, if it searches.
+     * @param type The registered name of the AI.
+     * @param hashSizeMB The transposition table size in megabytes.
+     * @return The AI player.
+     */
+    private static AIPlayer createAIPlayer(String type, int hashSizeMB) {
+        AIPlayer player = AIPlayer.createAIPlayer(type, true);
+        if (player instanceof MinimaxAI) {
+            ((MinimaxAI) player).setHashSize(hashSizeMB);
+        }
+        return player;
+    }
+
+    /**
+     * Plays the games that are not in a complete shard yet and writes them.
+     * @param out Where to report progress.
+     * @throws IOException If a shard can't be written.
+     */
+    public void run(PrintStream out) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        int shard = completeShards();
+        int done = 0;
+        for (int i = 0; i < shard; i++) {
+            done += shardGames(shardFile(i));
+        }
+        int remaining = games - done;
+        if (remaining <= 0) {
+            out.printf("%d shards already hold %d of %d games%n", shard, done, games);
+            return;
+        }
+        out.printf("%s vs %s: %d games to play, starting at shard %d, %d threads%n", firstAI, secondAI, remaining, shard, threads);
+        long start = System.nanoTime();
+        BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(QUEUE_GAMES_PER_THREAD * threads);
+        AtomicInteger toPlay = new AtomicInteger(remaining);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (int t = 0; t < threads; t++) {
+                pool.execute(() -> {
+                    try {
+                        for (int game = toPlay.decrementAndGet(); game >= 0; game = toPlay.decrementAndGet()) {
+                            byte[] record;
+                            try {
+                                record = playGame(game % 2 == 0);  // alternate colors
+                            } catch (RuntimeException e) {
+                                e.printStackTrace();
+                                record = FAILED;  // tells the writer to give up
+                            }
+                            queue.put(record);
+                            if (record == FAILED) {
+                                return;
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            // this thread is the writer
+            int written = 0;
+            while (written < remaining) {
+                int count = Math.min(gamesPerShard, remaining - written);
+                long positions = writeShard(shard, count, queue);
+                written += count;
+                out.printf("  shard %d: %d games, %d positions, %.1f games/s%n",
+                        shard, count, positions, written / ((System.nanoTime() - start) / 1e9));
+                shard++;
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Counts the complete shards of an earlier run and deletes the partial one, if any.
+     * Shards are numbered from 0, so the count is also the number of the next shard.
+     * @return The number of complete shards in a row.
+     * @throws IOException If the directory can't be read.
+     */
+    private int completeShards() throws IOException {
+        try (DirectoryStream<Path> partial = Files.newDirectoryStream(directory, SHARD_PREFIX + "*" + SHARD_SUFFIX + ".tmp")) {
+            for (Path file : partial) {
+                Files.delete(file);
+            }
+        }
+        int shard = 0;
+        while (Files.exists(shardFile(shard))) {
+            shard++;
+        }
+        return shard;
+    }
+
+    /**
+     * Reads the number of games in a complete shard from its header.
+     * @param file The shard file.
+     * @return The number of games in the shard.
+     * @throws IOException If the shard can't be read.
+     */
+    private static int shardGames(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IllegalArgumentException("Not a self-play shard: " + file);
+            }
+            return in.readInt();
+        }
+    }
+
+    private Path shardFile(int shard) {
+        return directory.resolve(String.format("%s%05d%s", SHARD_PREFIX, shard, SHARD_SUFFIX));
+    }
+
+    /**
+     * Writes the next games from the queue into one shard.
+     * @param shard The shard number.
+     * @param count The number of games in the shard.
+     * @param queue The finished games.
+     * @return The number of positions written.
+     * @throws IOException If the shard can't be written.
+     */
+    private long writeShard(int shard, int count, BlockingQueue<byte[]> queue) throws IOException, InterruptedException {
+        Path file = shardFile(shard);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long positions = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                byte[] game = queue.take();
+                if (game == FAILED) {
+                    throw new IllegalStateException("A game failed, shard " + shard + " was not completed");
+                }
+                out.write(game);
+                positions += game[0] & 0xFF;
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE);
+        return positions;
+    }
+
+    /**
+     * Plays one game on a new GameLogic and records it.
+     * @param firstAIStarts true if the first AI plays as player 1.
+     * @return The game's record, in shard format.
+     */
+    private byte[] playGame(boolean firstAIStarts) {
+        AIPlayer[] mine = players.get();
+        AIPlayer player1 = firstAIStarts ? mine[0] : mine[1];
+        AIPlayer player2 = firstAIStarts ? mine[1] : mine[0];
+        player1.setPlayerOne(true);
+        player2.setPlayerOne(false);
+        GameLogic gameLogic = new GameLogic();
+        gameLogic.setPlayers(player1, player2);
+        gameLogic.reset();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream record = new DataOutputStream(bytes);
+        int moves = 0;
+        try {
+            record.writeByte(0);  // the move count, filled in at the end
+            while (!gameLogic.status().isGameOver()) {
+                AIPlayer current = gameLogic.isFirstPlayerTurn() ? player1 : player2;
+                BoardState state = BoardState.of(gameLogic);
+                Move move = current.makeMove(gameLogic);
+                record.writeLong(state.discs[0]);
+                record.writeLong(state.discs[1]);
+                record.writeLong(state.bombs);
+                record.writeLong(state.unflippables);
+                record.writeByte(state.side);
+                record.writeByte(state.bombsLeft[0] | state.bombsLeft[1] << 2 | state.unflippablesLeft[0] << 4 | state.unflippablesLeft[1] << 6);
+                record.writeByte(BoardState.move(BitBoard.square(move.position().row(), move.position().col()), discType(move.disc())));
+                moves++;
+                if (!gameLogic.locate_disc(move.position(), move.disc())) {
+                    throw new IllegalStateException(current.getClass().getSimpleName() + " made an illegal move");
+                }
+            }
+            GameStatus status = gameLogic.status();
+            record.writeByte(status.firstDiscs() - status.secondDiscs());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // a ByteArrayOutputStream does not throw
+        }
+        byte[] game = bytes.toByteArray();
+        game[0] = (byte) moves;
+        return game;
+    }
+
+    /**
+     * Returns the BoardState disc type of a disc.
+     * @param disc The disc.
+     * @return SIMPLE, UNFLIPPABLE or BOMB.
+     */
+    private static int discType(Disc disc) {
+        if (disc.getType().equals("💣")) {
+            return BoardState.BOMB;
+        }
+        if (disc.getType().equals("⭕")) {
+            return BoardState.UNFLIPPABLE;
+        }
+        return BoardState.SIMPLE;
+    }
+
+    /**
+     * Generates self-play games from the command line.
+     * Usage: java SelfPlayGenerator <ai1> <ai2> <games> <directory> [gamesPerShard] [threads]
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        AIPlayer.registerAllAIPlayers();
+        AIPlayer.loadOpeningBook(Path.of(OpeningBook.DEFAULT_FILE));
+        AIPlayer.loadPatternWeights(Path.of(PatternEvaluator.DEFAULT_FILE));
+        if (args.length < 4) {
+            System.out.println("Usage: java SelfPlayGenerator <ai1> <ai2> <games> <directory> [gamesPerShard] [threads]");
+            System.out.println("AI players: " + AIPlayer.getAIPlayerTypes());
+            return;
+        }
+        int gamesPerShard = args.length > 4 ? Integer.parseInt(args[4]) : 10_000;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+        SelfPlayGenerator generator = new SelfPlayGenerator(args[0], args[1], Integer.parseInt(args[2]), threads, Path.of(args[3]), gamesPerShard);
+        generator.run(System.out);
+    }
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays two registered AI players against each other without the GUI.
+ * Games run in parallel on independent GameLogic instances, alternating which AI plays first,
+ * and the result is reported from the point of view of the first AI named.
+ * The games can also be written to a GameRecord file.
+ * Usage: java Tournament <ai1> <ai2> <games> [threads] [size] [recordFile]
+ */
+public class Tournament {
+    private static final int HASH_MB = 256;  // the transposition table memory of all the searching AIs together
+    private final String firstAI;
+    private final String secondAI;
+    private final int games;
+    private final int threads;
+    private final int boardSize;  // the games are played on boardSize x boardSize boards
+    // every worker thread reuses one instance of each AI: [0] is the first AI, [1] the second, colors are set per game
+    private final ThreadLocal<AIPlayer[]> players;
+    private GameRecord.Writer recorder;  // receives every finished game, null for none
+
+    /**
+     * Constructor for the Tournament class.
+     * @param firstAI The registered name of the first AI.
+     * @param secondAI The registered name of the second AI.
+     * @param games The number of games to play.
+     * @param threads The number of games played at the same time.
+     */
+    public Tournament(String firstAI, String secondAI, int games, int threads) {
+        this(firstAI, secondAI, games, threads, 8);
+    }
+
+    /**
+     * Constructor for the Tournament class, playing on boards of any even size.
+     * @param firstAI The registered name of the first AI.
+     * @param secondAI The registered name of the second AI.
+     * @param games The number of games to play.
+     * @param threads The number of games played at the same time.
+     * @param boardSize The number of rows and columns of the boards.
+     */
+    public Tournament(String firstAI, String secondAI, int games, int threads, int boardSize) {
+        if (!AIPlayer.getAIPlayerTypes().contains(firstAI) || !AIPlayer.getAIPlayerTypes().contains(secondAI)) {
+            throw new IllegalArgumentException("Unknown AI player type, choose from " + AIPlayer.getAIPlayerTypes());
+        }
+        if (games < 1 || threads < 1) {
+            throw new IllegalArgumentException("Games and threads must be positive");
+        }
+        if (boardSize < 4 || boardSize % 2 != 0) {
+            throw new IllegalArgumentException("Board size must be even and at least 4: " + boardSize);
+        }
+        this.firstAI = firstAI;
+        this.secondAI = secondAI;
+        this.games = games;
+        this.threads = threads;
+        this.boardSize = boardSize;
+        // the tables are shared out over the instances, so more threads don't take more memory
+        int hashSizeMB = Math.max(1, Math.min(SearchEngine.DEFAULT_HASH_MB, HASH_MB / (2 * threads)));
+        players = ThreadLocal.withInitial(() -> new AIPlayer[]{
+                createAIPlayer(firstAI, hashSizeMB), createAIPlayer(secondAI, hashSizeMB)});
+    }
+
+    /**
+     * Creates an AI player for the tournament, with a transposition table of the tournament's share, if it searches.
+     * @param type The registered name of the AI.
+     * @param hashSizeMB The transposition table size in megabytes.
+     * @return The AI player.
+     */
+    private static AIPlayer createAIPlayer(String type, int hashSizeMB) {
+        AIPlayer player = AIPlayer.createAIPlayer(type, true);
+        if (player instanceof MinimaxAI) {
+            ((MinimaxAI) player).setHashSize(hashSizeMB);
+        }
+        return player;
+    }
+
+    /**
+     * Sets where the finished games are recorded.
+     * @param recorder The record writer, on this tournament's board size, or null to record nothing.
+     */
+    public void setRecorder(GameRecord.Writer recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Plays all the games and prints the result.
+     * @param out Where to print the report.
+     */
+    public void run(PrintStream out) throws InterruptedException {
+        long start = System.nanoTime();
+        int wins = 0;
+        int draws = 0;
+        int losses = 0;
+        long marginSum = 0;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>(games);
+            for (int i = 0; i < games; i++) {
+                boolean firstAIStarts = i % 2 == 0;  // alternate colors
+                results.add(pool.submit(() -> playGame(firstAIStarts)));
+            }
+            for (Future<Integer> result : results) {
+                int margin = result.get();
+                marginSum += margin;
+                if (margin > 0) {
+                    wins++;
+                } else if (margin < 0) {
+                    losses++;
+                } else {
+                    draws++;
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException("A game failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        out.printf("%s vs %s: %d games on %dx%d boards, %d threads%n", firstAI, secondAI, games, boardSize, boardSize, threads);
+        out.printf("  win %d, draw %d, loss %d (%.1f%% score)%n", wins, draws, losses, 100.0 * (wins + 0.5 * draws) / games);
+        out.printf("  average disc margin %+.2f%n", (double) marginSum / games);
+        out.printf("  %.1f games/s%n", games / seconds);
+    }
+
+    /**
+     * Plays one game on a new GameLogic.
+     * @param firstAIStarts true if the first AI plays as player 1.
+     * @return The first AI's disc count minus the second AI's.
+     */
+    private int playGame(boolean firstAIStarts) {
+        AIPlayer[] mine = players.get();
+        AIPlayer player1 = firstAIStarts ? mine[0] : mine[1];
+        AIPlayer player2 = firstAIStarts ? mine[1] : mine[0];
+        player1.setPlayerOne(true);
+        player2.setPlayerOne(false);
+        GameLogic gameLogic = new GameLogic(boardSize);
+        gameLogic.setPlayers(player1, player2);
+        gameLogic.reset();
+        int[] plies = recorder != null ? new int[2 * boardSize * boardSize] : null;  // every move may be followed by a pass
+        int count = 0;
+        while (!gameLogic.status().isGameOver()) {  // the tournament keeps its own score, so no result is recorded
+            boolean firstToMove = gameLogic.isFirstPlayerTurn();
+            AIPlayer current = firstToMove ? player1 : player2;
+            Move move = current.makeMove(gameLogic);
+            if (!gameLogic.locate_disc(move.position(), move.disc())) {
+                throw new IllegalStateException(current.getClass().getSimpleName() + " made an illegal move");
+            }
+            if (plies != null) {
+                plies[count++] = GameRecord.encode(boardSize, move);
+                if (gameLogic.isFirstPlayerTurn() == firstToMove && !gameLogic.status().isGameOver()) {
+                    plies[count++] = GameRecord.pass(boardSize);
+                }
+            }
+        }
+        if (recorder != null) {
+            try {
+                recorder.write(plies, count);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Error recording a game", e);
+            }
+        }
+        GameStatus status = gameLogic.status();
+        int margin = status.firstDiscs() - status.secondDiscs();
+        return firstAIStarts ? margin : -margin;
+    }
+
+    /**
+     * Runs a tournament from the command line.
+     * Usage: java Tournament <ai1> <ai2> <games> [threads] [size] [recordFile]
+     */
+    public static void main(String[] args) throws InterruptedException, IOException {
+        AIPlayer.registerAllAIPlayers();
+        AIPlayer.loadOpeningBook(Path.of(OpeningBook.DEFAULT_FILE));
+        AIPlayer.loadPatternWeights(Path.of(PatternEvaluator.DEFAULT_FILE));
+        if (args.length < 3) {
+            System.out.println("Usage: java Tournament <ai1> <ai2> <games> [threads] [size] [recordFile]");
+            System.out.println("AI players: " + AIPlayer.getAIPlayerTypes());
+            return;
+        }
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int size = args.length > 4 ? Integer.parseInt(args[4]) : 8;
+        Tournament tournament = new Tournament(args[0], args[1], Integer.parseInt(args[2]), threads, size);
+        if (args.length > 5) {
+            try (GameRecord.Writer recorder = new GameRecord.Writer(Path.of(args[5]), size)) {
+                tournament.setRecorder(recorder);
+                tournament.run(System.out);
+            }
+        } else {
+            tournament.run(System.out);
+        }
+    }
+}
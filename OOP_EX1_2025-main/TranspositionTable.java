@@ -0,0 +1,149 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A fixed-size transposition table kept off the Java heap, in direct byte buffers.
+ * Every entry is 16 bytes: the position's Zobrist key and one packed word holding the best move,
+ * the search depth, the bound type, the search generation and the score. Large tables are split
+ * into 1 GB chunks, so multi-gigabyte tables work and never have to be scanned by the garbage collector.
+ * Replacement is depth-preferred: an entry of the current search is only replaced by a deeper (or equal) one.
+ * The table is lock-free and can be shared by search threads: the key slot holds key ^ data, so an entry
+ * torn by two racing writers fails the key check on probe and reads as a miss instead of as wrong data.
+ */
+public class TranspositionTable {
+    public static final int EXACT = 1;  // the score is exact
+    public static final int LOWER = 2;  // the score is a lower bound (the search failed high)
+    public static final int UPPER = 3;  // the score is an upper bound (the search failed low)
+    private static final int ENTRY_BYTES = 16;
+    private static final int CHUNK_BITS = 26;  // 2^26 entries of 16 bytes = 1 GB per chunk
+    private static final int NO_MOVE = 0xFF;
+
+    private final ByteBuffer[] chunks;
+    private final long mask;  // number of entries - 1
+    private volatile int generation;  // bumped by every new search, so old entries can be replaced
+
+    /**
+     * Constructor for the TranspositionTable class.
+     * @param sizeMB The memory to use in megabytes; the entry count is rounded down to a power of two.
+     */
+    public TranspositionTable(int sizeMB) {
+        if (sizeMB < 1) {
+            throw new IllegalArgumentException("Table size must be at least 1 MB: " + sizeMB);
+        }
+        long entries = Long.highestOneBit(((long) sizeMB << 20) / ENTRY_BYTES);
+        mask = entries - 1;
+        int chunkEntries = (int) Math.min(entries, 1L << CHUNK_BITS);
+        chunks = new ByteBuffer[(int) (entries / chunkEntries)];
+        for (int i = 0; i < chunks.length; i++) {
+            chunks[i] = ByteBuffer.allocateDirect(chunkEntries * ENTRY_BYTES).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /**
+     * Starts a new search: entries of earlier searches become replaceable.
+     */
+    public void newSearch() {
+        generation = (generation + 1) & 0xFF;
+    }
+
+    /**
+     * Looks up a position.
+     * @param key The Zobrist key of the position.
+     * @return The packed entry, or 0 if the position is not in the table.
+     */
+    public long probe(long key) {
+        long index = key & mask;
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+        int offset = (int) (index & ((1L << CHUNK_BITS) - 1)) * ENTRY_BYTES;
+        long data = chunk.getLong(offset + 8);
+        if ((chunk.getLong(offset) ^ data) != key) {
+            return 0;
+        }
+        return data;
+    }
+
+    /**
+     * Stores a search result, unless the slot holds a deeper result of the current search.
+     * @param key The Zobrist key of the position.
+     * @param move The best encoded move, or -1 if there is none.
+     * @param depth The depth searched.
+     * @param bound EXACT, LOWER or UPPER.
+     * @param score The score found.
+     */
+    public void store(long key, int move, int depth, int bound, int score) {
+        long index = key & mask;
+        ByteBuffer chunk = chunks[(int) (index >>> CHUNK_BITS)];
+        int offset = (int) (index & ((1L << CHUNK_BITS) - 1)) * ENTRY_BYTES;
+        long old = chunk.getLong(offset + 8);
+        if (old != 0 && (chunk.getLong(offset) ^ old) != key && generation(old) == generation && depth(old) > depth) {
+            return;
+        }
+        long data = (move < 0 ? NO_MOVE : move)
+                | (long) depth << 8
+                | (long) bound << 16
+                | (long) generation << 18
+                | (long) score << 32;
+        chunk.putLong(offset, key ^ data);
+        chunk.putLong(offset + 8, data);
+    }
+
+    /**
+     * Empties the table.
+     */
+    public void clear() {
+        for (ByteBuffer chunk : chunks) {
+            for (int offset = 0; offset < chunk.capacity(); offset += 8) {
+                chunk.putLong(offset, 0);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries the table can hold.
+     * @return The entry count.
+     */
+    public long capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Decodes the best move of an entry.
+     * @param entry A packed entry.
+     * @return The encoded move, or -1 if the entry has none.
+     */
+    public static int move(long entry) {
+        int move = (int) (entry & 0xFF);
+        return move == NO_MOVE ? -1 : move;
+    }
+
+    /**
+     * Decodes the depth of an entry.
+     * @param entry A packed entry.
+     * @return The depth searched.
+     */
+    public static int depth(long entry) {
+        return (int) (entry >>> 8) & 0xFF;
+    }
+
+    /**
+     * Decodes the bound type of an entry.
+     * @param entry A packed entry.
+     * @return EXACT, LOWER or UPPER.
+     */
+    public static int bound(long entry) {
+        return (int) (entry >>> 16) & 3;
+    }
+
+    /**
+     * Decodes the score of an entry.
+     * @param entry A packed entry.
+     * @return The score stored.
+     */
+    public static int score(long entry) {
+        return (int) (entry >>> 32);
+    }
+
+    private static int generation(long entry) {
+        return (int) (entry >>> 18) & 0xFF;
+    }
+}
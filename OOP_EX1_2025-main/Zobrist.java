@@ -0,0 +1,57 @@
+import java.util.SplittableRandom;
+
+/**
+ * Random keys for Zobrist hashing of BoardState positions.
+ * A position's hash is the xor of the keys of its discs (owner, type and square), the side to move
+ * and the special discs each player has left, so a move can update it with a few xors.
+ */
+final class Zobrist {
+    static final long[][][] DISCS = new long[2][3][BitBoard.SQUARES];  // [owner][disc type][square]
+    static final long SECOND_TO_MOVE;  // xor-ed in when player 2 is to move
+    static final long[][] BOMBS_LEFT = new long[2][Player.initial_number_of_bombs + 1];  // [player][bombs left]
+    static final long[][] UNFLIPPABLES_LEFT = new long[2][Player.initial_number_of_unflippedable + 1];  // [player][unflippables left]
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_2025L);  // fixed seed, so hashes are stable between runs
+        for (long[][] owner : DISCS) {
+            for (long[] type : owner) {
+                for (int sq = 0; sq < type.length; sq++) {
+                    type[sq] = random.nextLong();
+                }
+            }
+        }
+        SECOND_TO_MOVE = random.nextLong();
+        for (int p = 0; p < 2; p++) {
+            for (int i = 0; i < BOMBS_LEFT[p].length; i++) {
+                BOMBS_LEFT[p][i] = random.nextLong();
+            }
+            for (int i = 0; i < UNFLIPPABLES_LEFT[p].length; i++) {
+                UNFLIPPABLES_LEFT[p][i] = random.nextLong();
+            }
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Computes the hash of a position from scratch.
+     * @param state The position to hash.
+     * @return The Zobrist hash.
+     */
+    static long hash(BoardState state) {
+        long h = 0;
+        for (int owner = 0; owner < 2; owner++) {
+            for (long b = state.discs[owner]; b != 0; b &= b - 1) {
+                int sq = Long.numberOfTrailingZeros(b);
+                h ^= DISCS[owner][state.typeAt(sq)][sq];
+            }
+            h ^= BOMBS_LEFT[owner][state.bombsLeft[owner]];
+            h ^= UNFLIPPABLES_LEFT[owner][state.unflippablesLeft[owner]];
+        }
+        if (state.side == 1) {
+            h ^= SECOND_TO_MOVE;
+        }
+        return h;
+    }
+}
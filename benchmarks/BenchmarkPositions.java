@@ -0,0 +1,67 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The fixed corpus of positions the benchmarks run on.
+ * Every position is reached by replaying a seeded random game on a GameLogic with two human players
+ * (so undoLastMove works), which makes the corpus identical on every run and every machine.
+ */
+public final class BenchmarkPositions {
+    private static final long SEED = 20250101L;
+
+    private BenchmarkPositions() {
+    }
+
+    /**
+     * Builds the corpus: an opening, a midgame and an endgame with a few special discs,
+     * and a midgame where both players have placed all their bombs and unflippable discs.
+     * @return The positions by name, in a fixed order.
+     */
+    public static Map<String, GameLogic> corpus() {
+        Map<String, GameLogic> positions = new LinkedHashMap<>();
+        positions.put("opening", reach(6, false));
+        positions.put("midgame", reach(28, false));
+        positions.put("endgame", reach(50, false));
+        positions.put("special-dense", reach(30, true));
+        return positions;
+    }
+
+    /**
+     * Plays seeded random games until one lasts long enough and returns it after the given number of plies.
+     * @param plies The number of moves to play.
+     * @param specialsFirst true to place every bomb and unflippable disc as early as possible.
+     * @return A game with the position reached, both players human.
+     */
+    private static GameLogic reach(int plies, boolean specialsFirst) {
+        Random random = new Random(SEED + plies);
+        while (true) {
+            GameLogic game = new GameLogic();
+            game.setPlayers(new HumanPlayer(true), new HumanPlayer(false));
+            game.reset();
+            int played = 0;
+            while (played < plies && !game.ValidMoves().isEmpty()) {
+                List<Position> moves = new ArrayList<>(game.ValidMoves());
+                Position p = moves.get(random.nextInt(moves.size()));
+                Player player = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+                game.locate_disc(p, pickDisc(player, random, specialsFirst));
+                played++;
+            }
+            if (played == plies && !game.ValidMoves().isEmpty()) {
+                return game;
+            }
+        }
+    }
+
+    private static Disc pickDisc(Player player, Random random, boolean specialsFirst) {
+        if (player.getNumber_of_bombs() > 0 && (specialsFirst || random.nextInt(8) == 0)) {
+            return new BombDisc(player);
+        }
+        if (player.getNumber_of_unflippedable() > 0 && (specialsFirst || random.nextInt(8) == 0)) {
+            return new UnflippableDisc(player);
+        }
+        return new SimpleDisc(player);
+    }
+}
@@ -0,0 +1,216 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Micro-benchmarks of the GameLogic hot paths and the simple AI players over the BenchmarkPositions corpus.
+ * Every benchmark is warmed up and then timed over several fixed-length iterations; the report shows
+ * operations per second and the bytes allocated per operation (from the thread allocation counter).
+ * GameLogic caches the valid moves and their flip counts until the board changes, so the benchmarks that read them
+ * make a move and undo it first, and the time and allocation of that move and undo, measured on their own, are taken out.
+ * Results can be saved and later compared against, to judge an engine change against a baseline.
+ *
+ * Build and run from the project root:
+ *   javac -encoding UTF-8 -d out/bench OOP_EX1_2025-main/*.java benchmarks/*.java
+ *   java -cp out/bench Benchmarks [--filter text] [--save file] [--baseline file]
+ */
+public class Benchmarks {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+    private static final int ITERATIONS = 5;
+    private static final long ITERATION_NANOS = 1_000_000_000L;
+    private static volatile int sink;  // consumes every result, so the JIT can't drop the work
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * A measured result.
+     * @param opsPerSecond The mean operations per second.
+     * @param error The standard deviation of the operations per second over the iterations.
+     * @param bytesPerOp The bytes allocated per operation.
+     */
+    record Result(double opsPerSecond, double error, double bytesPerOp) {
+    }
+
+    /**
+     * A benchmark.
+     * @param op The timed operation.
+     * @param overhead Work the operation does first whose cost is taken out of the result, or null for none.
+     */
+    record Benchmark(IntSupplier op, IntSupplier overhead) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        String filter = "";
+        Path save = null;
+        Path baseline = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--filter" -> filter = args[++i];
+                case "--save" -> save = Path.of(args[++i]);
+                case "--baseline" -> baseline = Path.of(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        Map<String, Double> base = baseline == null ? Map.of() : load(baseline);
+        Map<String, Result> results = new LinkedHashMap<>();
+        Map<IntSupplier, Result> measured = new IdentityHashMap<>();  // shared overheads are measured once
+        System.out.printf("%-40s %14s %10s %12s%s%n", "benchmark", "ops/s", "error", "B/op", base.isEmpty() ? "" : "   vs base");
+        for (Map.Entry<String, Benchmark> benchmark : benchmarks().entrySet()) {
+            if (!benchmark.getKey().contains(filter)) {
+                continue;
+            }
+            Result r = measure(benchmark.getValue(), measured);
+            results.put(benchmark.getKey(), r);
+            String delta = "";
+            if (base.containsKey(benchmark.getKey())) {
+                delta = String.format(Locale.ROOT, "   %+7.1f%%", 100 * (r.opsPerSecond() / base.get(benchmark.getKey()) - 1));
+            }
+            System.out.printf(Locale.ROOT, "%-40s %14.1f %10.1f %12.1f%s%n", benchmark.getKey(), r.opsPerSecond(), r.error(), r.bytesPerOp(), delta);
+        }
+        if (save != null) {
+            List<String> lines = new ArrayList<>();
+            for (Map.Entry<String, Result> e : results.entrySet()) {
+                lines.add(e.getKey() + "," + e.getValue().opsPerSecond() + "," + e.getValue().bytesPerOp());
+            }
+            Files.write(save, lines);
+        }
+    }
+
+    /**
+     * Defines every benchmark on every corpus position.
+     * @return The operations by benchmark name.
+     */
+    private static Map<String, Benchmark> benchmarks() {
+        Map<String, Benchmark> benchmarks = new LinkedHashMap<>();
+        for (Map.Entry<String, GameLogic> entry : BenchmarkPositions.corpus().entrySet()) {
+            String name = entry.getKey();
+            GameLogic game = entry.getValue();
+            Position[] valid = game.ValidMoves().toArray(new Position[0]);
+            Position[] squares = new Position[game.getBoardSize() * game.getBoardSize()];
+            for (int i = 0; i < squares.length; i++) {
+                squares[i] = new Position(i / game.getBoardSize(), i % game.getBoardSize());
+            }
+            Player mover = game.isFirstPlayerTurn() ? game.getFirstPlayer() : game.getSecondPlayer();
+            GreedyAI greedy = new GreedyAI(game.isFirstPlayerTurn());
+            RandomAI random = new RandomAI(game.isFirstPlayerTurn());
+            Disc disc = new SimpleDisc(mover);
+            int[] next = new int[1];
+            // doMove checks the move without the cached flip counts, so a move and its undo clear the cache
+            // without doing the scan that the benchmarks after them time
+            IntSupplier change = () -> {
+                boolean placed = game.doMove(valid[next[0]++ % valid.length], disc);
+                game.undoMove();
+                return placed ? 1 : 0;
+            };
+            benchmarks.put("whatDiscFlip/" + name, new Benchmark(() -> game.whatDiscFlip(valid[next[0]++ % valid.length]).size(), null));
+            benchmarks.put("ValidMoves/" + name, new Benchmark(() -> change.getAsInt() + game.ValidMoves().size(), change));
+            benchmarks.put("countFlips/" + name,
+                    new Benchmark(() -> change.getAsInt() + game.countFlips(squares[next[0]++ % squares.length]), change));
+            benchmarks.put("locate_disc+undoLastMove/" + name, new Benchmark(() -> {
+                boolean placed = game.locate_disc(valid[next[0]++ % valid.length], new SimpleDisc(mover));
+                game.undoLastMove();
+                return placed ? 1 : 0;
+            }, null));
+            benchmarks.put("doMove+undoMove/" + name, new Benchmark(change, null));
+            benchmarks.put("GreedyAI.makeMove/" + name, new Benchmark(() -> change.getAsInt() + greedy.makeMove(game).position().row(), change));
+            benchmarks.put("RandomAI.makeMove/" + name, new Benchmark(() -> change.getAsInt() + random.makeMove(game).position().col(), change));
+        }
+        return benchmarks;
+    }
+
+    /**
+     * Measures a benchmark, taking out the cost of its overhead, if it has one.
+     * @param benchmark The benchmark.
+     * @param measured The results of the operations measured so far, by operation, to reuse and add to.
+     * @return The measured result.
+     */
+    private static Result measure(Benchmark benchmark, Map<IntSupplier, Result> measured) {
+        Result total = measured.computeIfAbsent(benchmark.op(), Benchmarks::measure);
+        if (benchmark.overhead() == null) {
+            return total;
+        }
+        Result overhead = measured.computeIfAbsent(benchmark.overhead(), Benchmarks::measure);
+        double nanos = 1e9 / total.opsPerSecond() - 1e9 / overhead.opsPerSecond();
+        if (nanos <= 0) {
+            return new Result(Double.NaN, Double.NaN, total.bytesPerOp() - overhead.bytesPerOp());  // lost in the noise
+        }
+        // the standard deviations of the two times per operation add up in quadrature
+        double errorNanos = Math.hypot(1e9 * total.error() / (total.opsPerSecond() * total.opsPerSecond()),
+                1e9 * overhead.error() / (overhead.opsPerSecond() * overhead.opsPerSecond()));
+        double opsPerSecond = 1e9 / nanos;
+        return new Result(opsPerSecond, opsPerSecond * opsPerSecond * errorNanos / 1e9, total.bytesPerOp() - overhead.bytesPerOp());
+    }
+
+    /**
+     * Warms an operation up and times it.
+     * @param op The operation.
+     * @return The measured result.
+     */
+    private static Result measure(IntSupplier op) {
+        run(op, WARMUP_NANOS);
+        double[] rates = new double[ITERATIONS];
+        long ops = 0;
+        long allocated = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            long bytesBefore = THREADS.getCurrentThreadAllocatedBytes();
+            long start = System.nanoTime();
+            long n = run(op, ITERATION_NANOS);
+            long elapsed = System.nanoTime() - start;
+            allocated += THREADS.getCurrentThreadAllocatedBytes() - bytesBefore;
+            ops += n;
+            rates[i] = n * 1e9 / elapsed;
+        }
+        double mean = 0;
+        for (double rate : rates) {
+            mean += rate / ITERATIONS;
+        }
+        double variance = 0;
+        for (double rate : rates) {
+            variance += (rate - mean) * (rate - mean) / ITERATIONS;
+        }
+        return new Result(mean, Math.sqrt(variance), (double) allocated / ops);
+    }
+
+    /**
+     * Runs an operation in batches until the time is up.
+     * @param op The operation.
+     * @param nanos How long to run.
+     * @return The number of operations run.
+     */
+    private static long run(IntSupplier op, long nanos) {
+        long end = System.nanoTime() + nanos;
+        long n = 0;
+        int acc = 0;
+        do {
+            for (int i = 0; i < 64; i++) {
+                acc += op.getAsInt();
+            }
+            n += 64;
+        } while (System.nanoTime() < end);
+        sink = acc;
+        return n;
+    }
+
+    /**
+     * Reads results saved with --save.
+     * @param file The saved file.
+     * @return The operations per second by benchmark name.
+     */
+    private static Map<String, Double> load(Path file) throws IOException {
+        Map<String, Double> base = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file)) {
+            String[] parts = line.split(",");
+            base.put(parts[0], Double.parseDouble(parts[1]));
+        }
+        return base;
+    }
+}